@@ -0,0 +1,94 @@
+package jobshop;
+
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.GloutonSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoders of the encodings and the analysis of a schedule (critical path, validation)
+ * on instances of various families and sizes.
+ *
+ * The solution used is the one of the SPT greedy solver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"ft10", "la36", "swv11", "ta01", "ta71"})
+    public String instance;
+
+    Instance pb;
+    ResourceOrder order;
+    JobNumbers jobNumbers;
+    Schedule schedule;
+    int[][] startTimes;
+
+    // buffers for the allocation-free decoder
+    int[] flatStartTimes;
+    int[] criticalPredecessors;
+    int[] queue;
+
+    @Setup
+    public void setup() throws IOException {
+        pb = Instance.fromFile(Paths.get("instances", instance));
+        schedule = new GloutonSolver("SPT").solve(pb, System.currentTimeMillis() + 1000).schedule;
+        order = new ResourceOrder(schedule);
+        jobNumbers = new JobNumbers(schedule);
+
+        startTimes = new int[pb.numJobs][pb.numTasks];
+        for(int j = 0 ; j < pb.numJobs ; j++)
+            for(int t = 0 ; t < pb.numTasks ; t++)
+                startTimes[j][t] = schedule.startTime(j, t);
+
+        flatStartTimes = new int[pb.numJobs * pb.numTasks];
+        criticalPredecessors = new int[pb.numJobs * pb.numTasks];
+        queue = new int[pb.numJobs * pb.numTasks];
+    }
+
+    @Benchmark
+    public Schedule resourceOrderToSchedule() {
+        return order.toSchedule();
+    }
+
+    @Benchmark
+    public boolean resourceOrderComputeStartTimes() {
+        return order.computeStartTimes(flatStartTimes, criticalPredecessors, queue);
+    }
+
+    @Benchmark
+    public Schedule jobNumbersToSchedule() {
+        return jobNumbers.toSchedule();
+    }
+
+    @Benchmark
+    public ResourceOrder resourceOrderCopy() {
+        return order.copy();
+    }
+
+    /** Critical path of a schedule whose critical predecessors are not known (e.g. built by JobNumbers). */
+    @Benchmark
+    public List<?> criticalPathFromStartTimes() {
+        return new Schedule(pb, startTimes).criticalPath();
+    }
+
+    /** Critical path of a schedule decoded from a resource order, that records the critical predecessors. */
+    @Benchmark
+    public List<?> criticalPathFromDecoder() {
+        return order.toSchedule().criticalPath();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return schedule.isValid();
+    }
+}
@@ -0,0 +1,72 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one pass over the neighborhood of DescentSolver : identification of the blocks of the critical path
+ * and evaluation of every swap of the Nowicki and Smutnicki neighborhood, starting from the SPT greedy solution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeighborhoodBenchmark {
+
+    @Param({"ft10", "la36", "swv11", "ta01", "ta71"})
+    public String instance;
+
+    DescentSolver solver = new DescentSolver();
+    ResourceOrder order;
+    MoveEvaluator evaluator;
+    ResourceOrder scratch;
+
+    @Setup
+    public void setup() throws IOException {
+        Instance pb = Instance.fromFile(Paths.get("instances", instance));
+        Schedule schedule = new GloutonSolver("SPT").solve(pb, System.currentTimeMillis() + 1000).schedule;
+        order = new ResourceOrder(schedule);
+        evaluator = new MoveEvaluator(order.copy());
+        scratch = new ResourceOrder(pb);
+    }
+
+    @Benchmark
+    public List<DescentSolver.Block> blocksOfCriticalPath() {
+        return solver.blocksOfCriticalPath(order);
+    }
+
+    /** Neighborhood pass where each swap is evaluated incrementally from heads and tails. */
+    @Benchmark
+    public int neighborhoodWithMoveEvaluator() {
+        int best = Integer.MAX_VALUE;
+        for(DescentSolver.Block block : solver.blocksOfCriticalPath(evaluator.order)) {
+            for(DescentSolver.Swap swap : solver.neighbors(block)) {
+                best = Math.min(best, evaluator.evaluate(swap));
+            }
+        }
+        return best;
+    }
+
+    /** Neighborhood pass where each swap is applied on a copy of the order that is then fully decoded. */
+    @Benchmark
+    public int neighborhoodWithFullDecoding() {
+        int best = Integer.MAX_VALUE;
+        for(DescentSolver.Block block : solver.blocksOfCriticalPath(order)) {
+            for(DescentSolver.Swap swap : solver.neighbors(block)) {
+                scratch.copyFrom(order);
+                swap.applyOn(scratch);
+                best = Math.min(best, scratch.toSchedule().makespan());
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,205 @@
+package jobshop;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Solves the (solver, instance, seed) cells of a benchmark on a bounded pool of workers.
+ *
+ * Each cell runs with its own deadline, which starts when a worker picks it. The record of a cell is written
+ * as soon as it completes, as a CSV line or a JSON object per line, so the records come in completion order
+ * and a long run can be followed or interrupted without losing the finished cells. Only the calling thread
+ * writes to the output.
+ *
+ * A cell should be given a single core : a solver that uses several threads (tabu search, multi-start descent...)
+ * should be run with fewer workers.
+ */
+public class BatchRunner {
+
+    /** Format of the records. */
+    public enum Format { CSV, JSON }
+
+    static final String CSV_HEADER = "solver,instance,seed,jobs,machines,best,runtime,makespan,gap,cause";
+
+    /** Outcome of a cell. */
+    public static final class Record {
+        public final String solver;
+        public final String instance;
+        public final long seed;
+        public final int numJobs;
+        public final int numMachines;
+        // best known makespan, -1 if unknown
+        public final int bestKnown;
+        public final long runtime;
+        public final int makespan;
+        public final Result.ExitCause cause;
+
+        Record(String solver, String instance, long seed, Instance pb, long runtime, Result result) {
+            this.solver = solver;
+            this.instance = instance;
+            this.seed = seed;
+            this.numJobs = pb.numJobs;
+            this.numMachines = pb.numMachines;
+            this.bestKnown = BestKnownResult.isKnown(instance) ? BestKnownResult.of(instance) : -1;
+            this.runtime = runtime;
+            this.makespan = result.schedule.makespan();
+            this.cause = result.cause;
+        }
+
+        /** Distance to the best known makespan, in percent (NaN if it is unknown). */
+        public double gap() {
+            return bestKnown < 0 ? Double.NaN : 100.0 * (makespan - bestKnown) / bestKnown;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%s,%d,%d,%s,%s", solver, instance, seed, numJobs, numMachines,
+                    bestKnown < 0 ? "" : bestKnown, runtime, makespan, bestKnown < 0 ? "" : String.format(Locale.ROOT, "%.2f", gap()), cause);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"solver\":\"%s\",\"instance\":\"%s\",\"seed\":%d,\"jobs\":%d,\"machines\":%d,"
+                            + "\"best\":%s,\"runtime\":%d,\"makespan\":%d,\"gap\":%s,\"cause\":\"%s\"}",
+                    solver, instance, seed, numJobs, numMachines, bestKnown < 0 ? "null" : bestKnown, runtime, makespan,
+                    bestKnown < 0 ? "null" : String.format(Locale.ROOT, "%.2f", gap()), cause);
+        }
+    }
+
+    private final Map<String, Solver> solvers;
+    private final int workers;
+    private final Format format;
+    private final PrintStream output;
+
+    // directory of the checkpoints of the instances, null if the cells start from scratch
+    private final Path checkpointDirectory;
+
+    // instances and checkpoints (one per solver and instance, keyed by "solver/instance") shared by the cells, each created once
+    private final Map<String, Instance> instances = new ConcurrentHashMap<>();
+    private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param solvers solvers available, by name
+     * @param workers number of cells solved concurrently
+     * @param format format of the records written to the output
+     */
+    public BatchRunner(Map<String, Solver> solvers, int workers, Format format, PrintStream output) {
+        this(solvers, workers, format, output, null);
+    }
+
+    /**
+     * Same as above, with each instance warm-started from, and recorded in, the checkpoint file named after it
+     * in the given directory. All the cells of an instance share its checkpoint.
+     */
+    public BatchRunner(Map<String, Solver> solvers, int workers, Format format, PrintStream output, Path checkpointDirectory) {
+        if(workers < 1)
+            throw new IllegalArgumentException("The number of workers must be positive: " + workers);
+        this.solvers = solvers;
+        this.workers = workers;
+        this.format = format;
+        this.output = output;
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    /**
+     * Solves each instance with each solver and each seed in 0 .. numSeeds - 1, writing the record of each cell
+     * when it completes.
+     * @return the records of all the cells, in completion order
+     */
+    public List<Record> run(List<String> solverNames, List<String> instanceNames, int numSeeds, long solveTimeMs) throws InterruptedException {
+        if(format == Format.CSV)
+            output.println(CSV_HEADER);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        CompletionService<Record> completion = new ExecutorCompletionService<>(pool);
+        int numCells = 0;
+        // the solvers are the outer loop, so that a partial run covers all the instances with the first solvers
+        for(String solverName : solverNames) {
+            for(String instanceName : instanceNames) {
+                for(long seed = 0 ; seed < numSeeds ; seed++) {
+                    long cellSeed = seed;
+                    completion.submit(() -> solve(solverName, instanceName, cellSeed, solveTimeMs));
+                    numCells++;
+                }
+            }
+        }
+
+        List<Record> records = new ArrayList<>(numCells);
+        try {
+            for(int k = 0 ; k < numCells ; k++) {
+                Record record = completion.take().get();
+                output.println(format == Format.CSV ? record.toCsv() : record.toJson());
+                output.flush();
+                records.add(record);
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A cell of the batch failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return records;
+    }
+
+    private Record solve(String solverName, String instanceName, long seed, long solveTimeMs) {
+        Instance instance = instances.computeIfAbsent(instanceName, name -> {
+            try {
+                return Instance.fromFile(Paths.get("instances/", name));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Solver solver = solvers.get(solverName).withSeed(seed);
+
+        long start = System.currentTimeMillis();
+        Result result;
+        if(checkpointDirectory == null)
+            result = solver.solve(instance, start + solveTimeMs);
+        else
+            result = solver.solve(instance, start + solveTimeMs,
+                    checkpoints.computeIfAbsent(solverName + "/" + instanceName,
+                            key -> new Checkpoint(Main.checkpointFile(checkpointDirectory, solverName, instanceName))));
+        long runtime = System.currentTimeMillis() - start;
+
+        String violation = result.schedule.firstViolation();
+        if(violation != null)
+            throw new IllegalStateException("Solver " + solverName + " returned an invalid schedule for " + instanceName + " (seed " + seed + "): " + violation);
+        return new Record(solverName, instanceName, seed, instance, runtime, result);
+    }
+
+    /** Prints, for each solver, the number of cells, the mean runtime and the mean, min and max gap to the best known results. */
+    public static void printSummary(List<Record> records, PrintStream output) {
+        Map<String, List<Record>> bySolver = new LinkedHashMap<>();
+        for(Record record : records)
+            bySolver.computeIfAbsent(record.solver, s -> new ArrayList<>()).add(record);
+
+        output.printf("%-25s %6s %10s %8s %8s %8s%n", "solver", "cells", "runtime", "gap", "min", "max");
+        for(Map.Entry<String, List<Record>> entry : bySolver.entrySet()) {
+            double runtime = 0, gap = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            int known = 0;
+            for(Record record : entry.getValue()) {
+                runtime += record.runtime;
+                if(record.bestKnown >= 0) {
+                    gap += record.gap();
+                    min = Math.min(min, record.gap());
+                    max = Math.max(max, record.gap());
+                    known++;
+                }
+            }
+            int cells = entry.getValue().size();
+            output.printf(Locale.ROOT, "%-25s %6d %10.1f %8.2f %8.2f %8.2f%n", entry.getKey(), cells, runtime / cells,
+                    known == 0 ? Double.NaN : gap / known, known == 0 ? Double.NaN : min, known == 0 ? Double.NaN : max);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Best solution of an instance, kept in a file (see SolutionIO) so that a later run can start from it.
+ *
+ * A search offers each solution better than the previous ones : the file is written at most once per
+ * WRITE_INTERVAL_MS while the search runs, and once more by flush() when it ends. A checkpoint can be shared by
+ * several searches running concurrently, it only keeps the best solution offered.
+ */
+public class Checkpoint {
+
+    /** Minimum time between two writes of the file while a search runs. */
+    static final long WRITE_INTERVAL_MS = 1000;
+
+    private final Path path;
+
+    // best solution offered or loaded, and whether it still has to be written
+    private ResourceOrder best;
+    private int bestMakespan = Integer.MAX_VALUE;
+    private boolean pending;
+    private long lastWrite;
+
+    public Checkpoint(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns a copy of the best solution of the instance, read from the file the first time, or null if there is none.
+     * A file that does not hold a valid solution of the instance is ignored, and replaced by the next solution offered.
+     */
+    public synchronized ResourceOrder load(Instance instance) {
+        if(best == null || best.instance != instance) {
+            best = null;
+            bestMakespan = Integer.MAX_VALUE;
+            pending = false;
+            if(!Files.exists(path))
+                return null;
+            try {
+                best = SolutionIO.readResourceOrder(instance, path);
+            } catch (IOException e) {
+                return null;
+            }
+            // the durations of the instance may have changed since the file was written
+            bestMakespan = best.toSchedule().makespan();
+        }
+        return best.copy();
+    }
+
+    /** Makespan of the best solution offered or loaded (Integer.MAX_VALUE if there is none). */
+    public synchronized int makespan() {
+        return bestMakespan;
+    }
+
+    /** Records a copy of the solution if it is better than the best one, and writes it if the last write is old enough. */
+    public synchronized void offer(ResourceOrder order, int makespan) {
+        if(makespan >= bestMakespan && best != null && best.instance == order.instance)
+            return;
+        best = order.copy();
+        bestMakespan = makespan;
+        pending = true;
+        if(System.currentTimeMillis() - lastWrite >= WRITE_INTERVAL_MS)
+            flush();
+    }
+
+    /** Writes the best solution if it has not been written yet. */
+    public synchronized void flush() {
+        if(!pending)
+            return;
+        try {
+            SolutionIO.write(best, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the checkpoint " + path, e);
+        }
+        pending = false;
+        lastWrite = System.currentTimeMillis();
+    }
+}
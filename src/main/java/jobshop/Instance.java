@@ -3,11 +3,8 @@ package jobshop;
 import jobshop.encodings.Task;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
-import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 public class Instance {
 
@@ -23,6 +20,20 @@ public class Instance {
     final int[][] durations;
     final int[][] machines;
 
+    // tables computed once the instance is loaded (see buildIndexes) :
+    // durations and machines indexed by task identifier (job * numTasks + task)
+    private int[] flatDurations;
+    private int[] flatMachines;
+    // taskWithMachine[job * numMachines + machine] is the task of the job that uses the machine (-1 if none)
+    private int[] taskWithMachine;
+    // remaining[job * (numTasks+1) + task] is the sum of the durations of the tasks task..numTasks-1 of the job
+    private int[] remaining;
+    // sum of the durations of all tasks of each job and of each machine
+    private int[] jobLoads;
+    private int[] machineLoads;
+    // lower bound of the makespan (see LowerBound)
+    private int lowerBound;
+
     public int duration(int job, int task) {
         return durations[job][task];
     }
@@ -36,13 +47,50 @@ public class Instance {
         return this.machine(t.job, t.task);
     }
 
+    /** Identifier of the task (job, task) : job * numTasks + task */
+    public int taskId(int job, int task) {
+        return job * numTasks + task;
+    }
+    /** Duration of the task with the given identifier. */
+    public int duration(int taskId) {
+        return flatDurations[taskId];
+    }
+    /** Machine of the task with the given identifier. */
+    public int machine(int taskId) {
+        return flatMachines[taskId];
+    }
+
     /** among the tasks of the given job, returns the task index that uses the given machine. */
     public int task_with_machine(int job, int wanted_machine) {
-        for(int task = 0 ; task < numTasks ; task++) {
-            if(machine(job, task) == wanted_machine)
-                return task;
-        }
-        throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        int task = taskWithMachine[job * numMachines + wanted_machine];
+        if(task == -1)
+            throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        return task;
+    }
+
+    /** True if one of the tasks of the job uses the machine. */
+    public boolean usesMachine(int job, int machine) {
+        return taskWithMachine[job * numMachines + machine] != -1;
+    }
+
+    /** Sum of the durations of the tasks of the job, starting from the given task (included). */
+    public int remainingProcessingTime(int job, int task) {
+        return remaining[job * (numTasks + 1) + task];
+    }
+
+    /** Sum of the durations of all tasks of the job. */
+    public int jobLoad(int job) {
+        return jobLoads[job];
+    }
+
+    /** Sum of the durations of all tasks executed on the machine. */
+    public int machineLoad(int machine) {
+        return machineLoads[machine];
+    }
+
+    /** Lower bound of the makespan of any schedule, computed once when the instance is loaded (see LowerBound). */
+    public int lowerBound() {
+        return lowerBound;
     }
 
     Instance(int numJobs, int numTasks) {
@@ -54,26 +102,34 @@ public class Instance {
         machines = new int[numJobs][numTasks];
     }
 
-    /** Parses a instance from a file. */
+    /** Parses a instance from a file, in the text or binary format (see InstanceIO). */
     public static Instance fromFile(Path path) throws IOException {
-        Iterator<String> lines = Files.readAllLines(path).stream()
-                .filter(l -> !l.startsWith("#"))
-                .collect(Collectors.toList())
-                .iterator();
-
-        Scanner header = new Scanner(lines.next());
-        int num_jobs = header.nextInt();
-        int num_tasks = header.nextInt();
-        Instance pb = new Instance(num_jobs, num_tasks);
-
-        for(int job = 0 ; job<num_jobs ; job++) {
-            Scanner line = new Scanner(lines.next());
-            for(int task = 0 ; task < num_tasks ; task++) {
-                pb.machines[job][task] = line.nextInt();
-                pb.durations[job][task] = line.nextInt();
+        return InstanceIO.read(path);
+    }
+
+    /** Builds the lookup tables, must be called once durations and machines have been filled. */
+    void buildIndexes() {
+        flatDurations = new int[numJobs * numTasks];
+        flatMachines = new int[numJobs * numTasks];
+        taskWithMachine = new int[numJobs * numMachines];
+        remaining = new int[numJobs * (numTasks + 1)];
+        jobLoads = new int[numJobs];
+        machineLoads = new int[numMachines];
+        Arrays.fill(taskWithMachine, -1);
+
+        for(int job = 0 ; job < numJobs ; job++) {
+            for(int task = numTasks - 1 ; task >= 0 ; task--) {
+                int machine = machines[job][task];
+                int duration = durations[job][task];
+                flatDurations[taskId(job, task)] = duration;
+                flatMachines[taskId(job, task)] = machine;
+                // tasks are visited backward so that the first task using the machine is kept
+                taskWithMachine[job * numMachines + machine] = task;
+                remaining[job * (numTasks + 1) + task] = remaining[job * (numTasks + 1) + task + 1] + duration;
+                machineLoads[machine] += duration;
             }
+            jobLoads[job] = remaining[job * (numTasks + 1)];
         }
-
-        return pb;
+        lowerBound = LowerBound.of(this);
     }
 }
\ No newline at end of file
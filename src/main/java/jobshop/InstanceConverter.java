@@ -0,0 +1,47 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/** Converts instance files between the text and the binary formats of InstanceIO. */
+public class InstanceConverter {
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-convert").build()
+                .defaultHelp(true)
+                .description("Converts jobshop instances between the text and binary formats.");
+
+        parser.addArgument("--to")
+                .choices("text", "binary")
+                .setDefault("binary")
+                .help("Format of the output file");
+        parser.addArgument("input")
+                .help("Instance file to convert (text or binary)");
+        parser.addArgument("output")
+                .help("File to write");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try {
+            Instance instance = Instance.fromFile(Paths.get(ns.getString("input")));
+            if(ns.getString("to").equals("binary"))
+                InstanceIO.writeBinary(instance, Paths.get(ns.getString("output")));
+            else
+                InstanceIO.writeText(instance, Paths.get(ns.getString("output")));
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
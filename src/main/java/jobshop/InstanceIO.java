@@ -0,0 +1,183 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes instances in two formats :
+ *
+ *  - the text format of the `instances` folder : a line "numJobs numTasks" followed by one line per job
+ *    listing for each task its machine and its duration. Anything between a '#' and the end of a line is a comment.
+ *
+ *  - a binary format made of big-endian ints : the magic number "JSPB", the format version, numJobs, numTasks,
+ *    then for each job and each task its machine and its duration. Such files are memory mapped when read.
+ *
+ * Text files are parsed directly from the bytes of the file, without creating any object per token.
+ */
+public final class InstanceIO {
+
+    /** First four bytes of a binary instance file : "JSPB" */
+    static final int MAGIC = 0x4A535042;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private InstanceIO() {}
+
+    /** Reads an instance from a file in the text or binary format (detected from the first bytes of the file). */
+    public static Instance read(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while(magic.hasRemaining() && channel.read(magic) != -1) { }
+            if(!magic.hasRemaining() && magic.getInt(0) == MAGIC)
+                return readBinary(channel, path);
+
+            channel.position(0);
+            return readText(channel, path);
+        }
+    }
+
+    /** Writes the instance in the text format. */
+    public static void writeText(Instance instance, Path path) throws IOException {
+        StringBuilder s = new StringBuilder();
+        s.append(instance.numJobs).append(' ').append(instance.numTasks).append(" # num-jobs num-tasks\n");
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                if(task > 0)
+                    s.append(' ');
+                s.append(instance.machine(job, task)).append(' ').append(instance.duration(job, task));
+            }
+            s.append('\n');
+        }
+        writeAtomically(ByteBuffer.wrap(s.toString().getBytes(StandardCharsets.US_ASCII)), path);
+    }
+
+    /** Writes the instance in the binary format. */
+    public static void writeBinary(Instance instance, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 2 * Integer.BYTES * instance.numJobs * instance.numTasks);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(instance.numJobs).putInt(instance.numTasks);
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                buffer.putInt(instance.machine(job, task)).putInt(instance.duration(job, task));
+            }
+        }
+        buffer.flip();
+        writeAtomically(buffer, path);
+    }
+
+    /** Writes the buffer in a temporary file that then replaces the target, so that readers never see a partial file. */
+    static void writeAtomically(ByteBuffer buffer, Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while(buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Instance readBinary(FileChannel channel, Path path) throws IOException {
+        long size = channel.size();
+        if(size < HEADER_SIZE)
+            throw new IOException("Truncated binary instance "+path);
+        IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asIntBuffer();
+        ints.get(); // magic number
+        int version = ints.get();
+        if(version != VERSION)
+            throw new IOException("Unsupported binary instance version "+version+" in "+path);
+        int numJobs = ints.get();
+        int numTasks = ints.get();
+        if(numJobs < 0 || numTasks < 0 || size != HEADER_SIZE + 2L * Integer.BYTES * numJobs * numTasks)
+            throw new IOException("Invalid size for a binary instance with "+numJobs+" jobs and "+numTasks+" tasks : "+path);
+
+        Instance pb = new Instance(numJobs, numTasks);
+        for(int job = 0 ; job < numJobs ; job++) {
+            for(int task = 0 ; task < numTasks ; task++) {
+                pb.machines[job][task] = ints.get();
+                pb.durations[job][task] = ints.get();
+            }
+        }
+        pb.buildIndexes();
+        return pb;
+    }
+
+    private static Instance readText(FileChannel channel, Path path) throws IOException {
+        Tokenizer in = new Tokenizer(channel, path);
+        int numJobs = in.nextInt();
+        int numTasks = in.nextInt();
+        Instance pb = new Instance(numJobs, numTasks);
+
+        for(int job = 0 ; job < numJobs ; job++) {
+            for(int task = 0 ; task < numTasks ; task++) {
+                pb.machines[job][task] = in.nextInt();
+                pb.durations[job][task] = in.nextInt();
+            }
+        }
+        pb.buildIndexes();
+        return pb;
+    }
+
+    /** Reads the integers of a text file through a fixed size buffer, skipping blanks and comments. */
+    private static final class Tokenizer {
+        private final FileChannel channel;
+        private final Path path;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+        Tokenizer(FileChannel channel, Path path) {
+            this.channel = channel;
+            this.path = path;
+            buffer.flip(); // initially empty
+        }
+
+        /** Returns the next byte of the file, or -1 at the end of the file. */
+        private int read() throws IOException {
+            while(!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if(read == -1)
+                    return -1;
+            }
+            return buffer.get();
+        }
+
+        int nextInt() throws IOException {
+            int c = read();
+            // skip blanks and comments
+            while(c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '#') {
+                if(c == '#') {
+                    while(c != '\n' && c != -1)
+                        c = read();
+                }
+                c = read();
+            }
+            if(c == -1)
+                throw new IOException("Unexpected end of file in "+path);
+
+            boolean negative = c == '-';
+            if(negative)
+                c = read();
+            if(c < '0' || c > '9')
+                throw new IOException("Unexpected character '"+(char) c+"' in "+path);
+            int value = 0;
+            while(c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                c = read();
+            }
+            if(c == '#') { // a comment directly after a number
+                while(c != '\n' && c != -1)
+                    c = read();
+            }
+            return negative ? -value : value;
+        }
+    }
+}
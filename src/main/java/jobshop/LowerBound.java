@@ -0,0 +1,150 @@
+package jobshop;
+
+import java.util.Arrays;
+
+/**
+ * Lower bounds of the makespan of an instance. No schedule can be shorter than :
+ *
+ *  - the load of a job (the sum of the durations of its tasks)
+ *  - for each machine, the smallest head of its tasks, plus its load, plus the smallest tail of its tasks, where
+ *    the head of a task is the sum of the durations of the tasks before it in its job and its tail the sum of
+ *    the durations of the tasks after it.
+ *  - for each machine, the makespan of the optimal preemptive schedule of its tasks, each task being released at its
+ *    head and delivered after its tail : this one-machine problem is solved exactly by the Jackson preemptive
+ *    schedule, which always runs the available task with the largest tail.
+ *
+ * The preemptive bound dominates the other two, which are kept as they are simpler to explain and to check.
+ */
+public final class LowerBound {
+
+    private LowerBound() {}
+
+    /** Best of the lower bounds below. */
+    public static int of(Instance instance) {
+        return Math.max(jobLoads(instance), Math.max(machineLoads(instance), jackson(instance)));
+    }
+
+    /** Largest load of a job. */
+    public static int jobLoads(Instance instance) {
+        int bound = 0;
+        for(int job = 0 ; job < instance.numJobs ; job++)
+            bound = Math.max(bound, instance.jobLoad(job));
+        return bound;
+    }
+
+    /** Largest load of a machine, increased by the smallest head and the smallest tail of its tasks. */
+    public static int machineLoads(Instance instance) {
+        int bound = 0;
+        for(int machine = 0 ; machine < instance.numMachines ; machine++) {
+            int head = Integer.MAX_VALUE;
+            int tail = Integer.MAX_VALUE;
+            for(int job = 0 ; job < instance.numJobs ; job++) {
+                if(!instance.usesMachine(job, machine))
+                    continue;
+                int task = instance.task_with_machine(job, machine);
+                head = Math.min(head, head(instance, job, task));
+                tail = Math.min(tail, tail(instance, job, task));
+            }
+            if(head != Integer.MAX_VALUE)
+                bound = Math.max(bound, head + instance.machineLoad(machine) + tail);
+        }
+        return bound;
+    }
+
+    /** Largest makespan of the Jackson preemptive schedule of a machine, with the heads and tails of its tasks. */
+    public static int jackson(Instance instance) {
+        int[] heads = new int[instance.numJobs];
+        int[] durations = new int[instance.numJobs];
+        int[] tails = new int[instance.numJobs];
+        int bound = 0;
+        for(int machine = 0 ; machine < instance.numMachines ; machine++) {
+            int n = 0;
+            for(int job = 0 ; job < instance.numJobs ; job++) {
+                if(!instance.usesMachine(job, machine))
+                    continue;
+                int task = instance.task_with_machine(job, machine);
+                heads[n] = head(instance, job, task);
+                durations[n] = instance.duration(job, task);
+                tails[n] = tail(instance, job, task);
+                n++;
+            }
+            bound = Math.max(bound, preemptive(n, heads, durations, tails));
+        }
+        return bound;
+    }
+
+    /**
+     * Makespan of the Jackson preemptive schedule of n tasks on a single machine, task i being released at heads[i],
+     * lasting durations[i] and delivered tails[i] after its completion : max(completion[i] + tails[i]).
+     * This is the optimal makespan when tasks can be interrupted, hence a lower bound when they cannot.
+     * Runs in O(n log n).
+     */
+    public static int preemptive(int n, int[] heads, int[] durations, int[] tails) {
+        return preemptive(n, heads, durations, tails, new long[n], new int[n], new int[n]);
+    }
+
+    /** Same as preemptive(n, heads, durations, tails), using the given buffers of size at least n instead of allocating them. */
+    public static int preemptive(int n, int[] heads, int[] durations, int[] tails, long[] released, int[] left, int[] heap) {
+        // tasks by increasing head, encoded as (head << 32 | i)
+        for(int i = 0 ; i < n ; i++)
+            released[i] = ((long) heads[i] << 32) | i;
+        Arrays.sort(released, 0, n);
+
+        System.arraycopy(durations, 0, left, 0, n);
+        // available tasks, in a binary heap ordered by decreasing tail
+        int size = 0;
+        int next = 0;
+        int time = 0;
+        int bound = 0;
+        while(next < n || size > 0) {
+            if(size == 0)
+                time = Math.max(time, (int) (released[next] >>> 32));
+            while(next < n && (int) (released[next] >>> 32) <= time) {
+                // sift up the released task
+                int task = (int) released[next++];
+                int k = size++;
+                while(k > 0 && tails[heap[(k - 1) / 2]] < tails[task]) {
+                    heap[k] = heap[(k - 1) / 2];
+                    k = (k - 1) / 2;
+                }
+                heap[k] = task;
+            }
+
+            // run the task with the largest tail until it completes or until the next release
+            int task = heap[0];
+            long release = next < n ? released[next] >>> 32 : Long.MAX_VALUE;
+            if(time + left[task] <= release) {
+                time += left[task];
+                left[task] = 0;
+                bound = Math.max(bound, time + tails[task]);
+                // sift down the last task from the root
+                int last = heap[--size];
+                int k = 0;
+                while(2 * k + 1 < size) {
+                    int child = 2 * k + 1;
+                    if(child + 1 < size && tails[heap[child + 1]] > tails[heap[child]])
+                        child++;
+                    if(tails[heap[child]] <= tails[last])
+                        break;
+                    heap[k] = heap[child];
+                    k = child;
+                }
+                heap[k] = last;
+            } else {
+                left[task] -= (int) release - time;
+                time = (int) release;
+            }
+        }
+        return bound;
+    }
+
+    /** Sum of the durations of the tasks of the job before the given one. */
+    private static int head(Instance instance, int job, int task) {
+        return instance.jobLoad(job) - instance.remainingProcessingTime(job, task);
+    }
+
+    /** Sum of the durations of the tasks of the job after the given one. */
+    private static int tail(Instance instance, int job, int task) {
+        return instance.remainingProcessingTime(job, task) - instance.duration(job, task);
+    }
+}
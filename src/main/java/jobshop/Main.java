@@ -1,6 +1,9 @@
 package jobshop;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -33,7 +36,15 @@ public class Main {
         solvers.put("descent", new DescentSolver());
         solvers.put("taboo", new TabooSolver());
         solvers.put("randomGlouton", new RandomGloutonSolver());
-        solvers.put("descentMultiStart", new DescentMultiStartSolver(8));
+        solvers.put("descentMultiStart", new DescentMultiStartSolver());
+        solvers.put("tabooCooperative", new CooperativeTabooSolver(4));
+        solvers.put("gifflerThompson", new GifflerThompsonSolver(DispatchRule.LRPT, 1));
+        solvers.put("gifflerThompsonRandom", new GifflerThompsonSolver(0.5, 0));
+        solvers.put("branchAndBound", new BranchAndBoundSolver());
+        solvers.put("genetic", new GeneticSolver());
+        solvers.put("simulatedAnnealing", new SimulatedAnnealingSolver());
+        solvers.put("pathRelinking", new PathRelinkingSolver());
+        solvers.put("shiftingBottleneck", new ShiftingBottleneckSolver());
     }
 
 
@@ -56,6 +67,23 @@ public class Main {
                 .required(true)
                 .help("Instance(s) to solve (space separated if more than one)");
 
+        parser.addArgument("--format")
+                .choices("text", "csv", "json")
+                .setDefault("text")
+                .help("Output format : a table (text), or one record per solved instance (csv, json) followed by a summary on stderr");
+        parser.addArgument("--jobs")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of instances solved concurrently (csv and json formats only)");
+        parser.addArgument("--seeds")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of seeds with which each instance is solved by each solver (csv and json formats only)");
+        parser.addArgument("--checkpoints")
+                .help("Directory of the best solution of each instance : the solvers start from it and record their solution in it");
+        parser.addArgument("--output")
+                .help("File to which the records are written (standard output by default)");
+
         Namespace ns = null;
         try {
             ns = parser.parseArgs(args);
@@ -64,9 +92,8 @@ public class Main {
             System.exit(1);
         }
 
-        PrintStream output = System.out;
-
         long solveTimeMs = ns.getLong("timeout") * 1000;
+        Path checkpointDirectory = ns.getString("checkpoints") == null ? null : Paths.get(ns.getString("checkpoints"));
 
         List<String> solversToTest = ns.getList("solver");
         for(String solverName : solversToTest) {
@@ -89,6 +116,17 @@ public class Main {
             instances.addAll(matches);
         }
 
+        String format = ns.getString("format");
+        if(!format.equals("text")) {
+            runBatch(ns, solversToTest, instances, solveTimeMs, checkpointDirectory);
+            return;
+        }
+        if(ns.getInt("jobs") != 1 || ns.getInt("seeds") != 1) {
+            System.err.println("ERROR: --jobs and --seeds require the csv or json format.");
+            System.exit(1);
+        }
+        PrintStream output = System.out;
+
         float[] runtimes = new float[solversToTest.size()];
         float[] distances = new float[solversToTest.size()];
 
@@ -116,17 +154,20 @@ public class Main {
                 for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
                     String solverName = solversToTest.get(solverId);
                     Solver solver = solvers.get(solverName);
+                    Checkpoint checkpoint = checkpointDirectory == null ? null
+                            : new Checkpoint(checkpointFile(checkpointDirectory, solverName, instanceName));
                     long start = System.currentTimeMillis();
                     long deadline = System.currentTimeMillis() + solveTimeMs;
-                    Result result = solver.solve(instance, deadline);
+                    Result result = checkpoint == null ? solver.solve(instance, deadline) : solver.solve(instance, deadline, checkpoint);
                     long runtime = System.currentTimeMillis() - start;
 
-                    if(!result.schedule.isValid()) {
+                    String violation = result.schedule.firstViolation();
+                    if(violation != null) {
                         System.err.println("ERROR: solver returned an invalid schedule");
+                        System.err.println("       " + violation);
                         System.exit(1);
                     }
 
-                    assert result.schedule.isValid();
                     int makespan = result.schedule.makespan();
                     float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
                     runtimes[solverId] += (float) runtime / (float) instances.size();
@@ -152,4 +193,38 @@ public class Main {
             System.exit(1);
         }
     }
-}
\ No newline at end of file
+
+    /** Solves the instances with the batch runner, streaming the records and printing a summary on stderr. */
+    private static void runBatch(Namespace ns, List<String> solversToTest, List<String> instances, long solveTimeMs, Path checkpointDirectory) {
+        BatchRunner.Format format = ns.getString("format").equals("csv") ? BatchRunner.Format.CSV : BatchRunner.Format.JSON;
+        String outputFile = ns.getString("output");
+        PrintStream output = System.out;
+        try {
+            if(outputFile != null)
+                output = new PrintStream(outputFile, "UTF-8");
+            BatchRunner runner = new BatchRunner(solvers, ns.getInt("jobs"), format, output, checkpointDirectory);
+            List<BatchRunner.Record> records = runner.run(solversToTest, instances, ns.getInt("seeds"), solveTimeMs);
+            BatchRunner.printSummary(records, System.err);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            if(output != System.out)
+                output.close();
+        }
+    }
+
+    /**
+     * File of the checkpoint of the instance for the solver, in a sub-directory of the solver (created if needed) :
+     * each solver only starts from its own solutions, so that its results do not depend on the solvers run before.
+     */
+    static Path checkpointFile(Path directory, String solverName, String instanceName) {
+        Path solverDirectory = directory.resolve(solverName);
+        try {
+            Files.createDirectories(solverDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return solverDirectory.resolve(instanceName + ".sol");
+    }
+}
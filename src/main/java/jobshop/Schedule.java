@@ -3,8 +3,10 @@ package jobshop;
 
 import jobshop.encodings.Task;
 
-import java.util.*;
-import java.util.stream.IntStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class Schedule {
     public final Instance pb;
@@ -12,6 +14,10 @@ public class Schedule {
     // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
     final int[][] times;
 
+    // for each task (j,i), identified by j * numTasks + i, the predecessor on its job or on its machine
+    // that ends exactly when the task starts (-1 if there is none). Computed on demand if not provided.
+    private int[] criticalPredecessors;
+
     public Schedule(Instance pb, int[][] times) {
         this.pb = pb;
         this.times = new int[pb.numJobs][];
@@ -20,39 +26,49 @@ public class Schedule {
         }
     }
 
+    /** Creates a schedule whose critical predecessors are already known (e.g. recorded by the decoder
+     * that computed the start times). */
+    public Schedule(Instance pb, int[][] times, int[] criticalPredecessors) {
+        this(pb, times);
+        this.criticalPredecessors = Arrays.copyOf(criticalPredecessors, pb.numJobs * pb.numTasks);
+    }
+
     public int startTime(int job, int task) {
         return times[job][task];
     }
 
     /** Returns true if this schedule is valid (no constraint is violated) */
     public boolean isValid() {
+        return firstViolation() == null;
+    }
+
+    /** Returns a description of the first constraint violated by this schedule, or null if it is valid. */
+    public String firstViolation() {
         for(int j = 0 ; j<pb.numJobs ; j++) {
-            for(int t = 1 ; t<pb.numTasks ; t++) {
-                if(startTime(j, t-1) + pb.duration(j, t-1) > startTime(j, t))
-                    return false;
-            }
             for(int t = 0 ; t<pb.numTasks ; t++) {
                 if(startTime(j, t) < 0)
-                    return false;
+                    return "Task "+new Task(j, t)+" starts at a negative time "+startTime(j, t);
+            }
+            for(int t = 1 ; t<pb.numTasks ; t++) {
+                if(endTime(j, t-1) > startTime(j, t))
+                    return "Task "+new Task(j, t)+" starts at "+startTime(j, t)+" before the end of "+new Task(j, t-1)+" at "+endTime(j, t-1);
             }
         }
 
-        for (int machine = 0 ; machine < pb.numMachines ; machine++) {
-            for(int j1=0 ; j1<pb.numJobs ; j1++) {
-                int t1 = pb.task_with_machine(j1, machine);
-                for(int j2=j1+1 ; j2<pb.numJobs ; j2++) {
-                    int t2 = pb.task_with_machine(j2, machine);
-
-                    boolean t1_first = startTime(j1, t1) + pb.duration(j1, t1) <= startTime(j2, t2);
-                    boolean t2_first = startTime(j2, t2) + pb.duration(j2, t2) <= startTime(j1, t1);
-
-                    if(!t1_first && !t2_first)
-                        return false;
-                }
+        // once the tasks of a machine are sorted by start time, it is enough to check that each one
+        // ends before the start of the next one
+        long[][] tasksByMachine = tasksByMachineSortedByStartTime();
+        for(int m = 0 ; m < pb.numMachines ; m++) {
+            for(int k = 1 ; k < tasksByMachine[m].length ; k++) {
+                int previous = (int) tasksByMachine[m][k-1] & Integer.MAX_VALUE;
+                int current = (int) tasksByMachine[m][k] & Integer.MAX_VALUE;
+                if(endTime(previous / pb.numTasks, previous % pb.numTasks) > startTime(current / pb.numTasks, current % pb.numTasks))
+                    return "Tasks "+new Task(previous / pb.numTasks, previous % pb.numTasks)
+                            +" and "+new Task(current / pb.numTasks, current % pb.numTasks)+" overlap on machine "+m;
             }
         }
 
-        return true;
+        return null;
     }
 
     public int makespan() {
@@ -86,50 +102,83 @@ public class Schedule {
     }
 
     public List<Task> criticalPath() {
+        if(criticalPredecessors == null)
+            criticalPredecessors = computeCriticalPredecessors();
+
         // select task with greatest end time
-        Task ldd = IntStream.range(0, pb.numJobs)
-                .mapToObj(j -> new Task(j, pb.numTasks-1))
-                .max(Comparator.comparing(this::endTime))
-                .get();
-        assert endTime(ldd) == makespan();
+        int last = pb.numTasks - 1;
+        for(int j = 1 ; j < pb.numJobs ; j++) {
+            if(endTime(j, pb.numTasks - 1) > endTime(last / pb.numTasks, pb.numTasks - 1))
+                last = j * pb.numTasks + pb.numTasks - 1;
+        }
+        assert endTime(last / pb.numTasks, pb.numTasks - 1) == makespan();
 
         // list that will contain the critical path.
-        // we construct it from the end, starting with the
-        // task that finishes last
-        LinkedList<Task> path = new LinkedList<>();
-        path.add(0,ldd);
-
-        // keep adding tasks to the path until the first task in the path
-        // starts a time 0
-        while(startTime(path.getFirst()) != 0) {
-            Task cur = path.getFirst();
-            int machine = pb.machine(cur.job, cur.task);
-
-            // will contain the task that was delaying the start
-            // of our current task
-            Optional<Task> latestPredecessor = Optional.empty();
-
-            if(cur.task > 0) {
-                // our current task has a predecessor on the job
-                Task predOnJob = new Task(cur.job, cur.task -1);
-
-                // if it was the delaying task, save it to predecessor
-                if(endTime(predOnJob) == startTime(cur))
-                    latestPredecessor = Optional.of(predOnJob);
-            }
-            if(!latestPredecessor.isPresent()) {
-                // no latest predecessor found yet, look among tasks executing on the same machine
-                latestPredecessor = IntStream.range(0, pb.numJobs)
-                        .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine)))
-                        .filter(t -> endTime(t) == startTime(cur))
-                        .findFirst();
-            }
-            // at this point we should have identified a latest predecessor, either on the job or on the machine
-            assert latestPredecessor.isPresent() && endTime(latestPredecessor.get()) == startTime(cur);
-            // insert predecessor at the beginning of the path
-            path.add(0, latestPredecessor.get());
+        // we construct it from the end, starting with the task that finishes last
+        // and following the critical predecessors until a task that starts at time 0
+        ArrayList<Task> path = new ArrayList<>();
+        for(int id = last ; id != -1 ; id = criticalPredecessors[id]) {
+            path.add(new Task(id / pb.numTasks, id % pb.numTasks));
         }
+        Collections.reverse(path);
         assert isCriticalPath(path);
         return path;
     }
-}
\ No newline at end of file
+
+    private int endTime(int job, int task) {
+        return startTime(job, task) + pb.duration(job, task);
+    }
+
+    /** For each task, finds the predecessor on its job or on its machine that ends exactly when it starts,
+     * giving priority to the predecessor on the job. */
+    private int[] computeCriticalPredecessors() {
+        int[] predecessors = new int[pb.numJobs * pb.numTasks];
+        Arrays.fill(predecessors, -1);
+
+        long[][] tasksByMachine = tasksByMachineSortedByStartTime();
+        for(int m = 0 ; m < pb.numMachines ; m++) {
+            for(int k = 1 ; k < tasksByMachine[m].length ; k++) {
+                int previous = (int) tasksByMachine[m][k-1] & Integer.MAX_VALUE;
+                int current = (int) tasksByMachine[m][k] & Integer.MAX_VALUE;
+                if(endTime(previous / pb.numTasks, previous % pb.numTasks) == startTime(current / pb.numTasks, current % pb.numTasks))
+                    predecessors[current] = previous;
+            }
+        }
+
+        for(int j = 0 ; j < pb.numJobs ; j++) {
+            for(int t = 1 ; t < pb.numTasks ; t++) {
+                if(endTime(j, t-1) == startTime(j, t))
+                    predecessors[j * pb.numTasks + t] = j * pb.numTasks + t - 1;
+            }
+        }
+        return predecessors;
+    }
+
+    /** Returns, for each machine, the tasks executed on it sorted by start time. Each task (j,i) is encoded as
+     * (startTime << 32 | nonZero << 31 | j * numTasks + i), so that sorting the encoded values sorts the tasks by start
+     * time, a task of zero duration coming before the task that starts at the same time. */
+    private long[][] tasksByMachineSortedByStartTime() {
+        int[] numTasksOnMachine = new int[pb.numMachines];
+        for(int j = 0 ; j < pb.numJobs ; j++) {
+            for(int t = 0 ; t < pb.numTasks ; t++) {
+                numTasksOnMachine[pb.machine(j, t)]++;
+            }
+        }
+        long[][] tasksByMachine = new long[pb.numMachines][];
+        for(int m = 0 ; m < pb.numMachines ; m++) {
+            tasksByMachine[m] = new long[numTasksOnMachine[m]];
+            numTasksOnMachine[m] = 0;
+        }
+        for(int j = 0 ; j < pb.numJobs ; j++) {
+            for(int t = 0 ; t < pb.numTasks ; t++) {
+                int m = pb.machine(j, t);
+                long nonZero = pb.duration(j, t) > 0 ? 1L << 31 : 0;
+                tasksByMachine[m][numTasksOnMachine[m]++] = ((long) startTime(j, t) << 32) | nonZero | (j * pb.numTasks + t);
+            }
+        }
+        for(int m = 0 ; m < pb.numMachines ; m++) {
+            Arrays.sort(tasksByMachine[m]);
+        }
+        return tasksByMachine;
+    }
+}
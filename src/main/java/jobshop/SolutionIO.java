@@ -0,0 +1,143 @@
+package jobshop;
+
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads and writes solutions in a binary format made of big-endian ints : the magic number "JSPS", the format
+ * version, the kind of encoding, numJobs, numTasks, then the job numbers of the encoding :
+ *
+ *  - for a resource order, the jobs in the order in which they use machine 0, then machine 1, ...
+ *  - for job numbers, the numJobs * numTasks job numbers.
+ *
+ * Only the sequences are stored, not the durations : a solution stays readable when the durations of the instance
+ * change. Files are written in a temporary file that then replaces the target, so they can be written while
+ * a search runs and read at any time.
+ */
+public final class SolutionIO {
+
+    /** First four bytes of a solution file : "JSPS" */
+    static final int MAGIC = 0x4A535053;
+    static final int VERSION = 1;
+    static final int RESOURCE_ORDER = 1;
+    static final int JOB_NUMBERS = 2;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    private SolutionIO() {}
+
+    /** Writes the resource order, whose machines must all be complete. */
+    public static void write(ResourceOrder order, Path path) throws IOException {
+        Instance instance = order.instance;
+        IntBuffer ints = header(instance, RESOURCE_ORDER, instance.numMachines * instance.numJobs);
+        for(int m = 0 ; m < instance.numMachines ; m++) {
+            if(order.nextFreeSlot[m] != instance.numJobs)
+                throw new IllegalArgumentException("The tasks of machine " + m + " are not all placed");
+            for(int k = 0 ; k < instance.numJobs ; k++)
+                ints.put(order.jobOf(order.taskIdAt(m, k)));
+        }
+        InstanceIO.writeAtomically(toBytes(ints), path);
+    }
+
+    /** Writes the job numbers, which must all be set. */
+    public static void write(JobNumbers jobNumbers, Path path) throws IOException {
+        Instance instance = jobNumbers.instance;
+        if(jobNumbers.nextToSet != jobNumbers.jobs.length)
+            throw new IllegalArgumentException("Only " + jobNumbers.nextToSet + " job numbers are set");
+        IntBuffer ints = header(instance, JOB_NUMBERS, jobNumbers.jobs.length);
+        ints.put(jobNumbers.jobs);
+        InstanceIO.writeAtomically(toBytes(ints), path);
+    }
+
+    /**
+     * Reads a solution of the instance as a resource order. A file of job numbers is decoded into its schedule.
+     * @throws IOException if the file is not a solution of an instance of this size, or if it is not a valid
+     *         solution of this instance (a job missing on a machine, or a cycle between the machines)
+     */
+    public static ResourceOrder readResourceOrder(Instance instance, Path path) throws IOException {
+        IntBuffer ints = readHeader(instance, path);
+        int kind = ints.get(2);
+        if(kind == JOB_NUMBERS)
+            return new ResourceOrder(readJobNumbers(instance, ints, path).toSchedule());
+
+        ResourceOrder order = new ResourceOrder(instance);
+        boolean[] placed = new boolean[instance.numJobs];
+        for(int m = 0 ; m < instance.numMachines ; m++) {
+            Arrays.fill(placed, false);
+            for(int k = 0 ; k < instance.numJobs ; k++) {
+                int job = ints.get();
+                if(job < 0 || job >= instance.numJobs || placed[job] || !instance.usesMachine(job, m))
+                    throw new IOException("Invalid job " + job + " on machine " + m + " in " + path);
+                placed[job] = true;
+                order.addTask(m, job, instance.task_with_machine(job, m));
+            }
+        }
+        if(order.toSchedule() == null)
+            throw new IOException("The resource order of " + path + " contains a cycle for this instance");
+        return order;
+    }
+
+    /**
+     * Reads a file of job numbers.
+     * @throws IOException if the file does not contain job numbers of an instance of this size
+     */
+    public static JobNumbers readJobNumbers(Instance instance, Path path) throws IOException {
+        IntBuffer ints = readHeader(instance, path);
+        if(ints.get(2) != JOB_NUMBERS)
+            throw new IOException("Not a file of job numbers : " + path);
+        return readJobNumbers(instance, ints, path);
+    }
+
+    private static JobNumbers readJobNumbers(Instance instance, IntBuffer ints, Path path) throws IOException {
+        JobNumbers jobNumbers = new JobNumbers(instance);
+        int[] counts = new int[instance.numJobs];
+        while(ints.hasRemaining()) {
+            int job = ints.get();
+            if(job < 0 || job >= instance.numJobs || ++counts[job] > instance.numTasks)
+                throw new IOException("Invalid job number " + job + " in " + path);
+            jobNumbers.jobs[jobNumbers.nextToSet++] = job;
+        }
+        return jobNumbers;
+    }
+
+    private static IntBuffer header(Instance instance, int kind, int size) {
+        IntBuffer ints = IntBuffer.allocate(HEADER_SIZE / Integer.BYTES + size);
+        ints.put(MAGIC).put(VERSION).put(kind).put(instance.numJobs).put(instance.numTasks);
+        return ints;
+    }
+
+    private static ByteBuffer toBytes(IntBuffer ints) {
+        ByteBuffer bytes = ByteBuffer.allocate(ints.capacity() * Integer.BYTES);
+        bytes.asIntBuffer().put(ints.array());
+        return bytes;
+    }
+
+    /** Reads the file and checks its header, returning its ints positioned after the header. */
+    private static IntBuffer readHeader(Instance instance, Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if(bytes.length < HEADER_SIZE || bytes.length % Integer.BYTES != 0)
+            throw new IOException("Truncated solution file " + path);
+        IntBuffer ints = ByteBuffer.wrap(bytes).asIntBuffer();
+        if(ints.get() != MAGIC)
+            throw new IOException("Not a solution file : " + path);
+        int version = ints.get();
+        if(version != VERSION)
+            throw new IOException("Unsupported solution version " + version + " in " + path);
+        int kind = ints.get();
+        int numJobs = ints.get();
+        int numTasks = ints.get();
+        if(numJobs != instance.numJobs || numTasks != instance.numTasks)
+            throw new IOException("The solution of " + path + " is for an instance of " + numJobs + " jobs and " + numTasks
+                    + " tasks, not " + instance.numJobs + " jobs and " + instance.numTasks + " tasks");
+        int expected = kind == RESOURCE_ORDER ? instance.numMachines * instance.numJobs : instance.numJobs * instance.numTasks;
+        if((kind != RESOURCE_ORDER && kind != JOB_NUMBERS) || ints.remaining() != expected)
+            throw new IOException("Invalid solution file " + path);
+        return ints;
+    }
+}
@@ -1,7 +1,33 @@
 package jobshop;
 
+import jobshop.encodings.ResourceOrder;
+
 public interface Solver {
 
     Result solve(Instance instance, long deadline);
 
+    /**
+     * Solves the instance, starting from the best solution of the checkpoint if it has one for this instance,
+     * and records the solution found in the checkpoint. Solvers that cannot start from a given solution solve
+     * the instance from scratch : the best of the two solutions is then returned.
+     */
+    default Result solve(Instance instance, long deadline, Checkpoint checkpoint) {
+        ResourceOrder start = checkpoint.load(instance);
+        Result result = solve(instance, deadline);
+        checkpoint.offer(new ResourceOrder(result.schedule), result.schedule.makespan());
+        checkpoint.flush();
+        // the checkpoint may have been improved since by other searches sharing it : compare with the start itself
+        if(start != null) {
+            Schedule startSchedule = start.toSchedule();
+            if(startSchedule.makespan() < result.schedule.makespan())
+                return new Result(instance, startSchedule, result.cause);
+        }
+        return result;
+    }
+
+    /** Solver whose random choices are driven by the given seed. A deterministic solver returns itself. */
+    default Solver withSeed(long seed) {
+        return this;
+    }
+
 }
@@ -4,15 +4,17 @@ import jobshop.Encoding;
 import jobshop.Instance;
 import jobshop.Schedule;
 
-import java.util.Comparator;
-import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.Arrays;
 
 public class ResourceOrder extends Encoding {
 
-    // for each machine m, taskByMachine[m] is an array of tasks to be
-    // executed on this machine in the same order
-    public final Task[][] tasksByMachine;
+    // each task (j, t) is identified by the integer j * numTasks + t.
+    // for each machine m, the tasks to be executed on this machine are stored in order
+    // in tasks[m * numJobs], tasks[m * numJobs + 1], ..., tasks[m * numJobs + numJobs - 1]
+    private final int[] tasks;
+
+    // for each task identifier, index of the task in the sequence of its machine (-1 if not yet placed)
+    private final int[] positions;
 
     // for each machine, indicate on many tasks have been initialized
     public final int[] nextFreeSlot;
@@ -22,8 +24,11 @@ public class ResourceOrder extends Encoding {
     {
         super(instance);
 
-        // matrix of null elements (null is the default value of objects)
-        tasksByMachine = new Task[instance.numMachines][instance.numJobs];
+        // no task placed on any machine
+        tasks = new int[instance.numMachines * instance.numJobs];
+        positions = new int[instance.numJobs * instance.numTasks];
+        Arrays.fill(tasks, -1);
+        Arrays.fill(positions, -1);
 
         // no task scheduled on any machine (0 is the default value)
         nextFreeSlot = new int[instance.numMachines];
@@ -32,83 +37,211 @@ public class ResourceOrder extends Encoding {
     /** Creates a resource order from a schedule. */
     public ResourceOrder(Schedule schedule)
     {
-        super(schedule.pb);
+        this(schedule.pb);
         Instance pb = schedule.pb;
 
-        this.tasksByMachine = new Task[pb.numMachines][];
-        this.nextFreeSlot = new int[instance.numMachines];
+        // for each machine, tasks encoded as (startTime << 32 | nonZero << 31 | job) so that sorting them sorts by
+        // start time, a task of zero duration coming before the task that starts at the same time (as in Schedule)
+        long[] tasksOnMachine = new long[pb.numJobs];
+        for(int m = 0 ; m<pb.numMachines ; m++) {
+            // for this machine, find all tasks that are executed on it and sort them by their start time
+            for(int j = 0 ; j < pb.numJobs ; j++) {
+                int task = pb.task_with_machine(j, m);
+                long nonZero = pb.duration(j, task) > 0 ? 1L << 31 : 0;
+                tasksOnMachine[j] = ((long) schedule.startTime(j, task) << 32) | nonZero | j;
+            }
+            Arrays.sort(tasksOnMachine);
 
-        for(int m = 0 ; m<schedule.pb.numMachines ; m++) {
-            final int machine = m;
+            // add them in this order to the machine
+            for(int k = 0 ; k < pb.numJobs ; k++) {
+                int job = (int) tasksOnMachine[k] & Integer.MAX_VALUE;
+                addTask(m, job, pb.task_with_machine(job, m));
+            }
+        }
+    }
 
-            // for thi machine, find all tasks that are executed on it and sort them by their start time
-            tasksByMachine[m] =
-                    IntStream.range(0, pb.numJobs) // all job numbers
-                            .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine))) // all tasks on this machine (one per job)
-                            .sorted(Comparator.comparing(t -> schedule.startTime(t.job, t.task))) // sorted by start time
-                            .toArray(Task[]::new); // as new array and store in tasksByMachine
+    /** Identifier of the task (job, task). */
+    public int taskId(int job, int task) {
+        return instance.taskId(job, task);
+    }
 
-            // indicate that all tasks have been initialized for machine m
-            nextFreeSlot[m] = instance.numJobs;
-        }
+    /** Job of the task with the given identifier. */
+    public int jobOf(int taskId) {
+        return taskId / instance.numTasks;
+    }
+
+    /** Index in its job of the task with the given identifier. */
+    public int taskOf(int taskId) {
+        return taskId % instance.numTasks;
+    }
+
+    /** Identifier of the task at the given index on the given machine (-1 if it has not been set). */
+    public int taskIdAt(int machine, int index) {
+        return tasks[machine * instance.numJobs + index];
+    }
+
+    /** Task at the given index on the given machine (null if it has not been set). */
+    public Task taskAt(int machine, int index) {
+        int id = taskIdAt(machine, index);
+        return id == -1 ? null : new Task(jobOf(id), taskOf(id));
+    }
+
+    /** Index of the task with the given identifier on its machine (-1 if it has not been placed). */
+    public int position(int taskId) {
+        return positions[taskId];
+    }
+
+    /** Appends the task (job, task) at the end of the tasks already placed on the machine. */
+    public void addTask(int machine, int job, int task) {
+        setTask(machine, nextFreeSlot[machine]++, job, task);
+    }
+
+    /** Places the task (job, task) at the given index on the given machine. */
+    public void setTask(int machine, int index, int job, int task) {
+        int id = taskId(job, task);
+        tasks[machine * instance.numJobs + index] = id;
+        positions[id] = index;
+    }
+
+    /** Exchanges the tasks at indices i1 and i2 on the given machine. */
+    public void swap(int machine, int i1, int i2) {
+        int offset = machine * instance.numJobs;
+        int id1 = tasks[offset + i1];
+        int id2 = tasks[offset + i2];
+        tasks[offset + i1] = id2;
+        tasks[offset + i2] = id1;
+        positions[id2] = i1;
+        positions[id1] = i2;
     }
 
     @Override
     public Schedule toSchedule() {
-        // indicate for each task that have been scheduled, its start time
-        int [][] startTimes = new int [instance.numJobs][instance.numTasks];
-
-        // for each job, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByJob = new int[instance.numJobs];
-
-        // for each machine, how many tasks have been scheduled (0 initially)
-        int[] nextToScheduleByMachine = new int[instance.numMachines];
-
-        // for each machine, earliest time at which the machine can be used
-        int[] releaseTimeOfMachine = new int[instance.numMachines];
-
-
-        // loop while there remains a job that has unscheduled tasks
-        while(IntStream.range(0, instance.numJobs).anyMatch(m -> nextToScheduleByJob[m] < instance.numTasks)) {
-
-            // selects a task that has noun scheduled predecessor on its job and machine :
-            //  - it is the next to be schedule on a machine
-            //  - it is the next to be scheduled on its job
-            // if there is no such task, we have cyclic dependency and the solution is invalid
-            Optional<Task> schedulable =
-                    IntStream.range(0, instance.numMachines) // all machines ...
-                    .filter(m -> nextToScheduleByMachine[m] < instance.numJobs) // ... with unscheduled jobs
-                    .mapToObj(m -> this.tasksByMachine[m][nextToScheduleByMachine[m]]) // tasks that are next to schedule on a machine ...
-                    .filter(task -> task.task == nextToScheduleByJob[task.job])  // ... and on their job
-                    .findFirst(); // select the first one if any
-
-            if(schedulable.isPresent()) {
-                // we found a schedulable task, lets call it t
-                Task t = schedulable.get();
-                int machine = instance.machine(t.job, t.task);
-
-                // compute the earliest start time (est) of the task
-                int est = t.task == 0 ? 0 : startTimes[t.job][t.task-1] + instance.duration(t.job, t.task-1);
-                est = Math.max(est, releaseTimeOfMachine[instance.machine(t)]);
-                startTimes[t.job][t.task] = est;
-
-                // mark the task as scheduled
-                nextToScheduleByJob[t.job]++;
-                nextToScheduleByMachine[machine]++;
-                // increase the release time of the machine
-                releaseTimeOfMachine[machine] = est + instance.duration(t.job, t.task);
-            } else {
-                // no tasks are schedulable, there is no solution for this resource ordering
-                return null;
+        int numTasks = instance.numJobs * instance.numTasks;
+        return toSchedule(new int[numTasks], new int[numTasks], new int[numTasks]);
+    }
+
+    /** Same as toSchedule() but uses the given buffers (of size numJobs * numTasks) instead of allocating them.
+     * Returns null if this resource order contains a cycle. */
+    public Schedule toSchedule(int[] startTimes, int[] criticalPredecessors, int[] queue) {
+        if(!computeStartTimes(startTimes, criticalPredecessors, queue))
+            return null;
+
+        int[][] times = new int[instance.numJobs][instance.numTasks];
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            System.arraycopy(startTimes, j * instance.numTasks, times[j], 0, instance.numTasks);
+        }
+        return new Schedule(instance, times, criticalPredecessors);
+    }
+
+    /** Same as computeStartTimes(startTimes, criticalPredecessors, queue) without recording the critical predecessors. */
+    public boolean computeStartTimes(int[] startTimes, int[] queue) {
+        return computeStartTimes(startTimes, null, queue);
+    }
+
+    /**
+     * Computes the earliest start time of every task, indexed by task identifier, in the startTimes array.
+     *
+     * The tasks are processed in a topological order of the disjunctive graph (arcs between consecutive tasks
+     * of a job and between consecutive tasks of a machine) : a task is added to the queue as soon as both its
+     * predecessor on its job and its predecessor on its machine have been scheduled.
+     *
+     * If criticalPredecessors is not null, it receives for each task the identifier of the predecessor (on the job
+     * if possible, on the machine otherwise) that ends exactly when the task starts, or -1 if the task starts at 0.
+     * Following these predecessors from the task that ends last gives a critical path.
+     * All arrays must have a size of numJobs * numTasks.
+     *
+     * Returns false if some tasks could not be scheduled, i.e. if the resource order contains a cycle.
+     */
+    public boolean computeStartTimes(int[] startTimes, int[] criticalPredecessors, int[] queue) {
+        int numTasks = instance.numJobs * instance.numTasks;
+
+        // -1 indicates that a task has not been scheduled yet
+        Arrays.fill(startTimes, 0, numTasks, -1);
+
+        // initially, the only schedulable tasks are the first tasks of their job that are also first on their machine
+        int queued = 0;
+        for(int m = 0 ; m < instance.numMachines ; m++) {
+            int first = taskIdAt(m, 0);
+            if(taskOf(first) == 0)
+                queue[queued++] = first;
+        }
+
+        int scheduled = 0;
+        while(scheduled < queued) {
+            int id = queue[scheduled++];
+            int task = taskOf(id);
+            int machine = instance.machine(id);
+            int index = positions[id];
+
+            // earliest start time : after the previous task of the job and after the previous task of the machine
+            int est = 0;
+            int critical = -1;
+            if(task > 0) {
+                est = startTimes[id - 1] + instance.duration(id - 1);
+                critical = id - 1;
+            }
+            if(index > 0) {
+                int previous = taskIdAt(machine, index - 1);
+                int end = startTimes[previous] + instance.duration(previous);
+                if(end > est) {
+                    est = end;
+                    critical = previous;
+                }
+            }
+            startTimes[id] = est;
+            if(criticalPredecessors != null)
+                criticalPredecessors[id] = critical;
+
+            // next task of the job becomes schedulable if its predecessor on its machine has been scheduled
+            if(task + 1 < instance.numTasks) {
+                int next = id + 1;
+                int nextIndex = positions[next];
+                if(nextIndex == 0 || startTimes[taskIdAt(instance.machine(next), nextIndex - 1)] != -1)
+                    queue[queued++] = next;
+            }
+            // next task of the machine becomes schedulable if its predecessor on its job has been scheduled
+            if(index + 1 < instance.numJobs) {
+                int next = taskIdAt(machine, index + 1);
+                if(taskOf(next) == 0 || startTimes[next - 1] != -1)
+                    queue[queued++] = next;
             }
         }
-        // we exited the loop : all tasks have been scheduled successfully
-        return new Schedule(instance, startTimes);
+
+        // if not all tasks have been scheduled, there is a cyclic dependency and the solution is invalid
+        return scheduled == numTasks;
     }
 
     /** Creates an exact copy of this resource order. */
     public ResourceOrder copy() {
-        return new ResourceOrder(this.toSchedule());
+        ResourceOrder copy = new ResourceOrder(instance);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /** Overwrites this resource order with the content of another one, without allocating anything.
+     * This allows to reuse a scratch resource order for evaluating many neighbors of a solution. */
+    public void copyFrom(ResourceOrder other) {
+        if(other.instance != instance)
+            throw new IllegalArgumentException("Cannot copy a resource order of another instance");
+        System.arraycopy(other.tasks, 0, tasks, 0, tasks.length);
+        System.arraycopy(other.positions, 0, positions, 0, positions.length);
+        System.arraycopy(other.nextFreeSlot, 0, nextFreeSlot, 0, nextFreeSlot.length);
+    }
+
+    /** Two resource orders are equal if they are on the same instance and have the same sequence on each machine. */
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        ResourceOrder other = (ResourceOrder) o;
+        return instance == other.instance
+                && Arrays.equals(nextFreeSlot, other.nextFreeSlot)
+                && Arrays.equals(tasks, other.tasks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(tasks);
     }
 
     @Override
@@ -120,7 +253,7 @@ public class ResourceOrder extends Encoding {
             s.append("Machine ").append(m).append(" : ");
             for(int j=0; j<instance.numJobs; j++)
             {
-                s.append(tasksByMachine[m][j]).append(" ; ");
+                s.append(taskAt(m, j)).append(" ; ");
             }
             s.append("\n");
         }
@@ -128,34 +261,14 @@ public class ResourceOrder extends Encoding {
         return s.toString();
     }
     
-    public int machine (Task task) {
-    	
-    	int machine = -1;
-    	
-    	for (int k = 0; k < instance.numMachines; k++) {
-    		for (Task taskTested : tasksByMachine[k]) {
-    			if (taskTested.equals(task)) {
-    				machine = k;
-    			}
-    		}
-    	}
-    	
-    	return machine;
+    /** Machine on which the task is executed. */
+    public int machine(Task task) {
+        return instance.machine(task);
     }
-    
-    public int taskIndex (Task task) {
-    	
-    	int taskIndex = -1;
-    	
-    	for (int j = 0; j < instance.numMachines; j++) {
-    		for (int i = 0; i < instance.numJobs; i++) {
-    			if (tasksByMachine[j][i].equals(task)) {
-    				taskIndex = i;
-    			}
-    		}
-    	}
-    	
-    	return taskIndex;
+
+    /** Index of the task in the sequence of its machine (-1 if it has not been placed). */
+    public int taskIndex(Task task) {
+        return position(taskId(task.job, task.task));
     }
 
 }
@@ -0,0 +1,174 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Arrays;
+
+/**
+ * Giffler-Thompson construction of an active schedule : no task can start earlier without delaying another one.
+ *
+ * At each step, the machine m* on which a waiting task would complete the earliest, at time c*, is selected.
+ * The tasks waiting for m* that can start before c* are in conflict : whichever is dispatched first, the other
+ * ones cannot start before its end. The dispatch rule chooses among them (ties broken by job number), and the
+ * chosen task is dispatched at its earliest start.
+ *
+ * The delay restricts the conflict set to the tasks that can start before s + delay * (c* - s), where s is the
+ * earliest start on m* : with a delay of 1 the schedules are active, with a delay of 0 they are non-delay
+ * (a machine never stays idle while a task waits for it) and the same as the ones of the greedy {@link Dispatcher}.
+ *
+ * The earliest completion of each machine is kept in a heap of machines. A dispatch only changes the earliest
+ * completion of its machine and of the machine of the next task of its job, whose queues are scanned again :
+ * a complete schedule is built in O(N (log M + J)), which is O(N log N) when the queues stay short.
+ */
+final class ActiveScheduleGenerator {
+
+    final Instance instance;
+
+    private final DispatchRule rule;
+    private final double delay;
+
+    // for each machine, jobs whose next task is on the machine, in queued[m * numJobs], ..., queued[m * numJobs + queueSizes[m] - 1]
+    private final int[] queued;
+    private final int[] queueSizes;
+    // for each job, index of the job in the queue of the machine of its next task
+    private final int[] queueIndices;
+
+    // for each job, next task to dispatch, machine of this task and rule key of this task
+    private final int[] nextTasks;
+    private final int[] nextMachines;
+    private final int[] keys;
+
+    private final int[] jobTimes;
+    private final int[] machineTimes;
+
+    // for each machine, earliest completion of a task waiting for it, and the heap of the machines ordered by it
+    private final int[] completions;
+    private final IndexedHeaps machines;
+
+    /** Generator of active schedules. */
+    ActiveScheduleGenerator(Instance instance, DispatchRule rule) {
+        this(instance, rule, 1);
+    }
+
+    /** Generator of schedules between non-delay (delay 0) and active (delay 1) ones. */
+    ActiveScheduleGenerator(Instance instance, DispatchRule rule, double delay) {
+        if(delay < 0 || delay > 1)
+            throw new IllegalArgumentException("The delay must be between 0 and 1: " + delay);
+        this.instance = instance;
+        this.rule = rule;
+        this.delay = delay;
+
+        queued = new int[instance.numMachines * instance.numJobs];
+        queueSizes = new int[instance.numMachines];
+        queueIndices = new int[instance.numJobs];
+        nextTasks = new int[instance.numJobs];
+        nextMachines = new int[instance.numJobs];
+        keys = new int[instance.numJobs];
+        jobTimes = new int[instance.numJobs];
+        machineTimes = new int[instance.numMachines];
+        completions = new int[instance.numMachines];
+        machines = new IndexedHeaps(1, instance.numMachines, completions, null, null);
+    }
+
+    /** Builds a new active schedule and returns the order of its tasks on each machine. */
+    ResourceOrder generate() {
+        ResourceOrder order = new ResourceOrder(instance);
+        reset();
+        while(!machines.isEmpty(0)) {
+            int machine = machines.top(0);
+            int job = select(machine);
+            int task = nextTasks[job];
+            int end = Math.max(jobTimes[job], machineTimes[machine]) + instance.duration(job, task);
+
+            order.addTask(machine, job, task);
+            dequeue(job);
+            jobTimes[job] = end;
+            machineTimes[machine] = end;
+            nextTasks[job]++;
+
+            if(nextTasks[job] < instance.numTasks) {
+                enqueue(job);
+                if(nextMachines[job] != machine)
+                    refresh(nextMachines[job]);
+            }
+            refresh(machine);
+        }
+        return order;
+    }
+
+    /** Job waiting for the machine that is dispatched : among the jobs in conflict, the one with the lowest key. */
+    private int select(int machine) {
+        int free = machineTimes[machine];
+        int earliest = Integer.MAX_VALUE;
+        for(int k = machine * instance.numJobs, end = k + queueSizes[machine] ; k < end ; k++)
+            earliest = Math.min(earliest, Math.max(jobTimes[queued[k]], free));
+        // the tasks starting at the earliest start are always in conflict
+        int limit = Math.min(completions[machine], earliest + (int) (delay * (completions[machine] - earliest)) + 1);
+        int best = -1;
+        for(int k = machine * instance.numJobs, end = k + queueSizes[machine] ; k < end ; k++) {
+            int job = queued[k];
+            int start = Math.max(jobTimes[job], free);
+            // a task of zero duration completing at the limit is not in conflict with itself
+            if(start >= limit && start + instance.duration(job, nextTasks[job]) > limit)
+                continue;
+            if(best == -1 || keys[job] < keys[best] || (keys[job] == keys[best] && job < best))
+                best = job;
+        }
+        return best;
+    }
+
+    private void reset() {
+        Arrays.fill(queueSizes, 0);
+        Arrays.fill(nextTasks, 0);
+        Arrays.fill(jobTimes, 0);
+        Arrays.fill(machineTimes, 0);
+        for(int m = 0 ; m < instance.numMachines ; m++)
+            if(machines.contains(m))
+                machines.remove(0, m);
+        if(instance.numTasks == 0)
+            return;
+        for(int j = 0 ; j < instance.numJobs ; j++)
+            enqueue(j);
+        for(int m = 0 ; m < instance.numMachines ; m++)
+            refresh(m);
+    }
+
+    /** Adds the job to the queue of the machine of its next task. */
+    private void enqueue(int job) {
+        int task = nextTasks[job];
+        int machine = instance.machine(job, task);
+        nextMachines[job] = machine;
+        keys[job] = rule.key(instance, job, task);
+        queueIndices[job] = queueSizes[machine];
+        queued[machine * instance.numJobs + queueSizes[machine]++] = job;
+    }
+
+    /** Removes the job from the queue of the machine of its next task, by moving the last job of the queue in its place. */
+    private void dequeue(int job) {
+        int machine = nextMachines[job];
+        int last = queued[machine * instance.numJobs + --queueSizes[machine]];
+        queued[machine * instance.numJobs + queueIndices[job]] = last;
+        queueIndices[last] = queueIndices[job];
+    }
+
+    /** Computes the earliest completion of the machine again and updates its position in the heap of machines. */
+    private void refresh(int machine) {
+        if(queueSizes[machine] == 0) {
+            if(machines.contains(machine))
+                machines.remove(0, machine);
+            return;
+        }
+        int free = machineTimes[machine];
+        int completion = Integer.MAX_VALUE;
+        for(int k = machine * instance.numJobs, end = k + queueSizes[machine] ; k < end ; k++) {
+            int job = queued[k];
+            completion = Math.min(completion, Math.max(jobTimes[job], free) + instance.duration(job, nextTasks[job]));
+        }
+        completions[machine] = completion;
+        if(machines.contains(machine))
+            machines.update(0, machine);
+        else
+            machines.add(0, machine);
+    }
+}
@@ -0,0 +1,453 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exact branch and bound, starting from the solution of a short tabu search.
+ *
+ * A node of the tree is a partial active schedule, in which each machine executes a prefix of its sequence.
+ * Its children follow the Giffler-Thompson construction : on the machine m* where a waiting task would complete
+ * the earliest, at c*, each task that can start before c* is in turn appended to the sequence of m*. All active
+ * schedules, among which an optimal one, are leaves of the tree.
+ *
+ * A node is pruned when its lower bound is not better than the best solution. The windows of the remaining tasks
+ * in a better schedule, from the heads given by the partial schedule to the best makespan minus the tails, are
+ * narrowed by the DisjunctivePropagator : the node is pruned if they become empty. Otherwise, its bound is, for each
+ * machine, the makespan of the Jackson preemptive schedule of its remaining tasks released at their narrowed heads.
+ * The children are explored by increasing bound.
+ *
+ * A node only stores the task it appends and a reference to its parent, so the partial sequences are shared.
+ * Subtrees are explored depth-first with undo on the fork-join pool : an idle worker steals the subtrees forked by
+ * a busy one, which forks its children only when its own queue is nearly empty. When the whole tree has been
+ * explored before the deadline, the best solution is proved optimal.
+ */
+public class BranchAndBoundSolver implements Solver {
+
+	/** the tabu search providing the first solution runs for 1/TABOO_SHARE of the time */
+	static final int TABOO_SHARE = 10;
+
+	/** a worker forks its children only while fewer subtrees than this wait in its queue */
+	static final int MAX_SURPLUS = 2;
+
+	private final ForkJoinPool pool;
+
+	/** Branch and bound using all the available cores. */
+	public BranchAndBoundSolver() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/** Branch and bound exploring the tree with the given number of threads. */
+	public BranchAndBoundSolver(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+		this.pool = new ForkJoinPool(threads);
+	}
+
+	@Override
+	public Result solve(Instance instance, long deadline) {
+		long now = System.currentTimeMillis();
+		Result initial = new TabooSolver(1).solve(instance, now + Math.max(0, deadline - now) / TABOO_SHARE);
+		if (initial.cause == Result.ExitCause.ProvedOptimal) {
+			return initial;
+		}
+
+		Tree tree = new Tree(instance, deadline, new ResourceOrder(initial.schedule), initial.schedule.makespan());
+		pool.invoke(new Subtree(tree, null));
+
+		Result.ExitCause cause = tree.timeout ? Result.ExitCause.Timeout : Result.ExitCause.ProvedOptimal;
+		//the schedule of the tabu search is kept as is if the tree did not improve it
+		Schedule best = tree.upperBound.get() < initial.schedule.makespan() ? tree.bestOrder().toSchedule() : initial.schedule;
+		return new Result(instance, best, cause);
+	}
+
+	/** One step from the parent node : the next task of the job is appended to the sequence of its machine. */
+	static final class Node {
+		final Node parent;
+		final int job;
+		final int depth;
+
+		Node(Node parent, int job) {
+			this.parent = parent;
+			this.job = job;
+			this.depth = parent == null ? 1 : parent.depth + 1;
+		}
+	}
+
+	/** State shared by all the workers : the best solution and the deadline. */
+	static final class Tree {
+		final Instance instance;
+		final long deadline;
+		// sum of the durations of the tasks after each task in its job
+		final int[] tails;
+
+		final AtomicInteger upperBound;
+		private ResourceOrder best;
+		volatile boolean timeout;
+
+		// searches of each worker that are not in use : a worker waiting for the subtrees it forked explores other
+		// subtrees meanwhile, each of them with its own search
+		private final ThreadLocal<ArrayDeque<Search>> idleSearches = ThreadLocal.withInitial(ArrayDeque::new);
+
+		Tree(Instance instance, long deadline, ResourceOrder initial, int makespan) {
+			this.instance = instance;
+			this.deadline = deadline;
+			this.best = initial;
+			this.upperBound = new AtomicInteger(makespan);
+			tails = new int[instance.numJobs * instance.numTasks];
+			for (int j = 0; j < instance.numJobs; j++) {
+				for (int t = 0; t < instance.numTasks; t++) {
+					tails[instance.taskId(j, t)] = instance.remainingProcessingTime(j, t) - instance.duration(j, t);
+				}
+			}
+		}
+
+		/** Records the complete schedule given by the sequence of dispatched jobs if it is the best one. */
+		synchronized void improve(int[] jobs, int makespan) {
+			if (makespan >= upperBound.get()) {
+				return;
+			}
+			ResourceOrder order = new ResourceOrder(instance);
+			int[] nextTasks = new int[instance.numJobs];
+			for (int job : jobs) {
+				int task = nextTasks[job]++;
+				order.addTask(instance.machine(job, task), job, task);
+			}
+			best = order;
+			upperBound.set(makespan);
+		}
+
+		synchronized ResourceOrder bestOrder() {
+			return best;
+		}
+
+		/** Search at the root that is not in use by the calling worker, to be released after the exploration. */
+		Search acquire() {
+			Search search = idleSearches.get().pollLast();
+			return search != null ? search : new Search(this);
+		}
+
+		/** Gives the search back to the calling worker, for its next subtrees. */
+		void release(Search search) {
+			search.reset();
+			idleSearches.get().addLast(search);
+		}
+	}
+
+	/** Exploration of the subtree of a node by a worker. */
+	static final class Subtree extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final Tree tree;
+		final Node node;
+
+		Subtree(Tree tree, Node node) {
+			this.tree = tree;
+			this.node = node;
+		}
+
+		@Override
+		protected void compute() {
+			if (tree.timeout) {
+				return;
+			}
+			Search search = tree.acquire();
+			try {
+				search.replay(node);
+				if (search.bound() < tree.upperBound.get()) {
+					search.explore();
+				}
+			} finally {
+				tree.release(search);
+			}
+		}
+	}
+
+	/** Depth-first search with undo from a partial schedule, owned by a worker that reuses it for its next subtrees. */
+	static final class Search {
+		final Tree tree;
+		final Instance instance;
+		final int numOperations;
+
+		// partial schedule : next task of each job, end of its last dispatched task, end of the last task of each machine
+		final int[] nextTasks;
+		final int[] jobTimes;
+		final int[] machineTimes;
+
+		// jobs dispatched at each depth, with the times they replaced, to undo the dispatch
+		final int[] path;
+		final int[] savedJobTimes;
+		final int[] savedMachineTimes;
+		int depth;
+		// node of the path at each depth, created only when a subtree is forked
+		final Node[] nodes;
+		int rootDepth;
+
+		// children of the node at each depth, with their bound
+		final int[][] children;
+		final int[][] childBounds;
+
+		// time windows of the tasks, and buffers of the bound
+		final DisjunctivePropagator propagator;
+		final int[] heads;
+		final int[] machineHeads;
+		final int[] machineDurations;
+		final int[] machineTails;
+		final long[] released;
+		final int[] left;
+		final int[] heap;
+
+		Search(Tree tree) {
+			this.tree = tree;
+			this.instance = tree.instance;
+			this.numOperations = instance.numJobs * instance.numTasks;
+			nextTasks = new int[instance.numJobs];
+			jobTimes = new int[instance.numJobs];
+			machineTimes = new int[instance.numMachines];
+			path = new int[numOperations];
+			savedJobTimes = new int[numOperations];
+			savedMachineTimes = new int[numOperations];
+			nodes = new Node[numOperations + 1];
+			children = new int[numOperations][instance.numJobs];
+			childBounds = new int[numOperations][instance.numJobs];
+			propagator = new DisjunctivePropagator(instance);
+			heads = new int[numOperations];
+			machineHeads = new int[instance.numJobs];
+			machineDurations = new int[instance.numJobs];
+			machineTails = new int[instance.numJobs];
+			released = new long[instance.numJobs];
+			left = new int[instance.numJobs];
+			heap = new int[instance.numJobs];
+		}
+
+		/** Dispatches the jobs of the path from the root to the node. */
+		void replay(Node node) {
+			int length = node == null ? 0 : node.depth;
+			int[] jobs = new int[length];
+			for (Node n = node; n != null; n = n.parent) {
+				jobs[n.depth - 1] = n.job;
+			}
+			for (int job : jobs) {
+				dispatch(job);
+			}
+			rootDepth = length;
+			nodes[length] = node;
+		}
+
+		/** Cancels all the dispatches, back to the root. */
+		void reset() {
+			while (depth > 0) {
+				undo();
+			}
+			nodes[rootDepth] = null;
+			rootDepth = 0;
+		}
+
+		/** Appends the next task of the job to the sequence of its machine, at its earliest start. */
+		void dispatch(int job) {
+			int task = nextTasks[job];
+			int machine = instance.machine(job, task);
+			savedJobTimes[depth] = jobTimes[job];
+			savedMachineTimes[depth] = machineTimes[machine];
+			int end = Math.max(jobTimes[job], machineTimes[machine]) + instance.duration(job, task);
+			jobTimes[job] = end;
+			machineTimes[machine] = end;
+			nextTasks[job]++;
+			path[depth] = job;
+			nodes[++depth] = null;
+		}
+
+		/** Cancels the last dispatch. */
+		void undo() {
+			depth--;
+			int job = path[depth];
+			int task = --nextTasks[job];
+			jobTimes[job] = savedJobTimes[depth];
+			machineTimes[instance.machine(job, task)] = savedMachineTimes[depth];
+		}
+
+		/** Node of the path at the given depth. */
+		Node node(int d) {
+			if (d == rootDepth || nodes[d] != null) {
+				return nodes[d];
+			}
+			return nodes[d] = new Node(node(d - 1), path[d - 1]);
+		}
+
+		/**
+		 * Lower bound of the makespan of the schedules completing the partial one, or at least the best makespan when
+		 * the propagation shows that none of them is better.
+		 */
+		int bound() {
+			int bound = 0;
+			//heads of the remaining tasks : after the previous task of their job and after the tasks of their machine
+			for (int job = 0; job < instance.numJobs; job++) {
+				int time = jobTimes[job];
+				for (int task = nextTasks[job]; task < instance.numTasks; task++) {
+					int id = instance.taskId(job, task);
+					time = Math.max(time, machineTimes[instance.machine(id)]);
+					heads[id] = time;
+					time += instance.duration(id);
+				}
+				bound = Math.max(bound, time);
+			}
+			int upperBound = tree.upperBound.get();
+			if (bound >= upperBound) {
+				return bound;
+			}
+
+			//windows of the remaining tasks in a schedule better than the best one, narrowed by propagation
+			for (int job = 0; job < instance.numJobs; job++) {
+				for (int task = 0; task < instance.numTasks; task++) {
+					int id = instance.taskId(job, task);
+					boolean remaining = task >= nextTasks[job];
+					propagator.active[id] = remaining;
+					if (remaining) {
+						propagator.est[id] = heads[id];
+						propagator.lct[id] = upperBound - 1 - tree.tails[id];
+					}
+				}
+			}
+			if (!propagator.propagate()) {
+				return upperBound;
+			}
+			for (int machine = 0; machine < instance.numMachines; machine++) {
+				int n = 0;
+				for (int job = 0; job < instance.numJobs; job++) {
+					if (!instance.usesMachine(job, machine)) {
+						continue;
+					}
+					int task = instance.task_with_machine(job, machine);
+					if (task < nextTasks[job]) {
+						continue;
+					}
+					int id = instance.taskId(job, task);
+					machineHeads[n] = propagator.est[id];
+					machineDurations[n] = instance.duration(id);
+					machineTails[n] = tree.tails[id];
+					n++;
+				}
+				if (n > 0) {
+					bound = Math.max(bound, LowerBound.preemptive(n, machineHeads, machineDurations, machineTails, released, left, heap));
+				}
+			}
+			return bound;
+		}
+
+		/** Checks the deadline, which stops all the workers once it is reached. */
+		boolean timedOut() {
+			if (!tree.timeout && System.currentTimeMillis() >= tree.deadline) {
+				tree.timeout = true;
+			}
+			return tree.timeout;
+		}
+
+		/** Explores the subtree of the current partial schedule, whose bound is below the best makespan. */
+		void explore() {
+			if (timedOut()) {
+				return;
+			}
+			if (depth == numOperations) {
+				int makespan = 0;
+				for (int time : jobTimes) {
+					makespan = Math.max(makespan, time);
+				}
+				tree.improve(path, makespan);
+				return;
+			}
+
+			//machine on which a waiting task completes the earliest
+			int bestMachine = -1;
+			int earliestCompletion = Integer.MAX_VALUE;
+			for (int job = 0; job < instance.numJobs; job++) {
+				if (nextTasks[job] == instance.numTasks) {
+					continue;
+				}
+				int id = instance.taskId(job, nextTasks[job]);
+				int machine = instance.machine(id);
+				int completion = Math.max(jobTimes[job], machineTimes[machine]) + instance.duration(id);
+				if (completion < earliestCompletion || (completion == earliestCompletion && machine < bestMachine)) {
+					earliestCompletion = completion;
+					bestMachine = machine;
+				}
+			}
+
+			//children : the tasks waiting for this machine that can start before this completion, by increasing bound
+			int[] jobs = children[depth];
+			int[] bounds = childBounds[depth];
+			int count = 0;
+			for (int job = 0; job < instance.numJobs; job++) {
+				if (nextTasks[job] == instance.numTasks) {
+					continue;
+				}
+				int id = instance.taskId(job, nextTasks[job]);
+				if (instance.machine(id) != bestMachine) {
+					continue;
+				}
+				int start = Math.max(jobTimes[job], machineTimes[bestMachine]);
+				if (start >= earliestCompletion && start + instance.duration(id) > earliestCompletion) {
+					continue;
+				}
+				dispatch(job);
+				int bound = bound();
+				undo();
+				//the bound of a child runs the propagation : the deadline is checked after each one
+				if (timedOut()) {
+					return;
+				}
+				if (bound >= tree.upperBound.get()) {
+					continue;
+				}
+				int k = count++;
+				while (k > 0 && bounds[k - 1] > bound) {
+					jobs[k] = jobs[k - 1];
+					bounds[k] = bounds[k - 1];
+					k--;
+				}
+				jobs[k] = job;
+				bounds[k] = bound;
+			}
+
+			//a worker whose queue is nearly empty gives its other children to the idle workers
+			List<Subtree> forked = null;
+			if (count > 1 && ForkJoinTask.inForkJoinPool() && ForkJoinTask.getSurplusQueuedTaskCount() < MAX_SURPLUS) {
+				forked = new ArrayList<>(count - 1);
+				Node parent = node(depth);
+				for (int k = 1; k < count; k++) {
+					Subtree subtree = new Subtree(tree, new Node(parent, jobs[k]));
+					subtree.fork();
+					forked.add(subtree);
+				}
+				count = 1;
+			}
+
+			for (int k = 0; k < count; k++) {
+				//the best makespan may have improved since the bound was computed
+				if (bounds[k] >= tree.upperBound.get()) {
+					continue;
+				}
+				dispatch(jobs[k]);
+				explore();
+				undo();
+			}
+
+			if (forked != null) {
+				for (Subtree subtree : forked) {
+					subtree.join();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package jobshop.solvers;
+
+import jobshop.LowerBound;
+
+import java.util.Arrays;
+
+/**
+ * Carlier's branch and bound for the one-machine problem with heads and tails : n tasks, task i being released at
+ * head[i], lasting duration[i] and delivered tail[i] after its completion, must be sequenced on a single machine so
+ * as to minimize the makespan max(completion[i] + tail[i]).
+ *
+ * Each node is solved by the Schrage heuristic, which always starts the released task with the largest tail. On the
+ * critical path of its schedule, if a task c with a smaller tail than the last task of the path comes before the set
+ * J of tasks following it, either c comes after all of J (its head is increased) or before all of J (its tail is
+ * increased). A node is pruned by the Jackson preemptive schedule (see LowerBound.preemptive).
+ *
+ * The number of nodes is bounded, the best sequence found being returned when the search is stopped : it is then
+ * optimal only if the Schrage sequence of the root reaches the preemptive bound, which is often the case.
+ */
+final class Carlier {
+
+    private final int maxNodes;
+
+    // heads and tails of the node being explored, and the durations
+    private final int[] heads;
+    private final int[] durations;
+    private final int[] tails;
+
+    // Schrage schedule of the node being explored
+    private final int[] sequence;
+    private final int[] starts;
+
+    // best sequence found and its makespan
+    private final int[] bestSequence;
+    private int bestMakespan;
+    private int nodes;
+
+    // buffers of the sorts and of the preemptive bound
+    private final long[] released;
+    private final int[] heap;
+    private final int[] left;
+
+    /**
+     * @param capacity maximum number of tasks of a problem
+     * @param maxNodes maximum number of nodes explored by solve()
+     */
+    Carlier(int capacity, int maxNodes) {
+        this.maxNodes = maxNodes;
+        heads = new int[capacity];
+        durations = new int[capacity];
+        tails = new int[capacity];
+        sequence = new int[capacity];
+        starts = new int[capacity];
+        bestSequence = new int[capacity];
+        released = new long[capacity];
+        heap = new int[capacity];
+        left = new int[capacity];
+    }
+
+    /**
+     * Sequences the n tasks.
+     * @param result receives the indices of the tasks in the order in which they are executed
+     * @return the makespan of this sequence
+     */
+    int solve(int n, int[] head, int[] duration, int[] tail, int[] result) {
+        System.arraycopy(head, 0, heads, 0, n);
+        System.arraycopy(duration, 0, durations, 0, n);
+        System.arraycopy(tail, 0, tails, 0, n);
+        bestMakespan = Integer.MAX_VALUE;
+        nodes = 0;
+        branch(n);
+        System.arraycopy(bestSequence, 0, result, 0, n);
+        return bestMakespan;
+    }
+
+    private void branch(int n) {
+        nodes++;
+        int makespan = schrage(n);
+        if(makespan < bestMakespan) {
+            bestMakespan = makespan;
+            System.arraycopy(sequence, 0, bestSequence, 0, n);
+        }
+
+        // last task b of the critical path, ending at the makespan, and first task a of its block without idle time
+        int b = -1;
+        for(int k = 0 ; k < n ; k++) {
+            int i = sequence[k];
+            if(starts[i] + durations[i] + tails[i] == makespan)
+                b = k;
+        }
+        int a = b;
+        while(a > 0 && starts[sequence[a - 1]] + durations[sequence[a - 1]] == starts[sequence[a]])
+            a--;
+        // last task c of the path with a smaller tail than b
+        int c = -1;
+        for(int k = b - 1 ; k >= a ; k--) {
+            if(tails[sequence[k]] < tails[sequence[b]]) {
+                c = k;
+                break;
+            }
+        }
+        // no such task : the Schrage schedule is optimal for this node
+        if(c == -1 || nodes >= maxNodes)
+            return;
+
+        // J : the tasks after c on the path
+        int headJ = Integer.MAX_VALUE;
+        int tailJ = Integer.MAX_VALUE;
+        int durationJ = 0;
+        for(int k = c + 1 ; k <= b ; k++) {
+            int i = sequence[k];
+            headJ = Math.min(headJ, heads[i]);
+            tailJ = Math.min(tailJ, tails[i]);
+            durationJ += durations[i];
+        }
+        int task = sequence[c];
+
+        // c after all of J
+        int saved = heads[task];
+        heads[task] = Math.max(heads[task], headJ + durationJ);
+        if(bound(n) < bestMakespan)
+            branch(n);
+        heads[task] = saved;
+        if(nodes >= maxNodes)
+            return;
+
+        // c before all of J
+        saved = tails[task];
+        tails[task] = Math.max(tails[task], tailJ + durationJ);
+        if(bound(n) < bestMakespan)
+            branch(n);
+        tails[task] = saved;
+    }
+
+    private int bound(int n) {
+        return LowerBound.preemptive(n, heads, durations, tails, released, left, heap);
+    }
+
+    /** Schrage schedule of the current heads and tails, into sequence and starts. */
+    private int schrage(int n) {
+        for(int i = 0 ; i < n ; i++)
+            released[i] = ((long) heads[i] << 32) | i;
+        Arrays.sort(released, 0, n);
+
+        int size = 0;
+        int next = 0;
+        int time = 0;
+        int makespan = 0;
+        for(int k = 0 ; k < n ; k++) {
+            if(size == 0)
+                time = Math.max(time, (int) (released[next] >>> 32));
+            while(next < n && (int) (released[next] >>> 32) <= time) {
+                // sift up the released task, in a heap ordered by decreasing tail
+                int task = (int) released[next++];
+                int h = size++;
+                while(h > 0 && tails[heap[(h - 1) / 2]] < tails[task]) {
+                    heap[h] = heap[(h - 1) / 2];
+                    h = (h - 1) / 2;
+                }
+                heap[h] = task;
+            }
+
+            int task = heap[0];
+            int last = heap[--size];
+            int h = 0;
+            while(2 * h + 1 < size) {
+                int child = 2 * h + 1;
+                if(child + 1 < size && tails[heap[child + 1]] > tails[heap[child]])
+                    child++;
+                if(tails[heap[child]] <= tails[last])
+                    break;
+                heap[h] = heap[child];
+                h = child;
+            }
+            heap[h] = last;
+
+            sequence[k] = task;
+            starts[task] = time;
+            time += durations[task];
+            makespan = Math.max(makespan, time + tails[task]);
+        }
+        return makespan;
+    }
+}
@@ -0,0 +1,169 @@
+package jobshop.solvers;
+
+import jobshop.Checkpoint;
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs several tabu searches concurrently, with different starting solutions and tenures.
+ *
+ * The searches share a pool of the best resource orders they found : a search that stagnates for too long
+ * restarts from an order of the pool, possibly found by another search. The best schedule found by any
+ * search is published in a shared reference.
+ */
+public class CooperativeTabooSolver implements Solver {
+
+	/** number of orders kept in the elite pool */
+	static final int ELITE_SIZE = 8;
+
+	/** number of iterations without improvement after which a search restarts from an elite order */
+	static final int RESTART_AFTER = 1000;
+
+	/** number of concurrent searches */
+	int trajectories;
+
+	public CooperativeTabooSolver(int trajectories) {
+		if (trajectories < 1)
+			throw new IllegalArgumentException("The number of trajectories must be positive: " + trajectories);
+		this.trajectories = trajectories;
+	}
+
+	@Override
+	public Result solve(Instance instance, long deadline) {
+		return solveFrom(GifflerThompsonSolver.initialOrder(instance, deadline), deadline, null);
+	}
+
+	@Override
+	public Result solve(Instance instance, long deadline, Checkpoint checkpoint) {
+		//continue from the solution of the checkpoint, or else from the best greedy one
+		ResourceOrder start = checkpoint.load(instance);
+		Result result = solveFrom(start != null ? start : GifflerThompsonSolver.initialOrder(instance, deadline), deadline, checkpoint);
+		checkpoint.offer(new ResourceOrder(result.schedule), result.schedule.makespan());
+		checkpoint.flush();
+		return result;
+	}
+
+	private Result solveFrom(ResourceOrder initOrder, long deadline, Checkpoint checkpoint) {
+		Instance instance = initOrder.instance;
+
+		//shared by all the searches
+		AtomicReference<Schedule> incumbent = new AtomicReference<>();
+		ElitePool elites = new ElitePool(ELITE_SIZE);
+		Schedule initSchedule = initOrder.toSchedule();
+
+		//each search runs until the deadline : it needs a thread of its own, and concurrent calls must not share them
+		ExecutorService pool = Executors.newFixedThreadPool(trajectories, runnable -> {
+			Thread thread = new Thread(runnable, "taboo-cooperative");
+			// daemon threads : a search still finishing its iteration must not prevent the program from exiting
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+		List<Future<Result>> searches = new ArrayList<>();
+		for (int k = 0; k < trajectories; k++) {
+			Trajectory trajectory = new Trajectory(k, incumbent, elites);
+			searches.add(completion.submit(() -> trajectory.run(initOrder.copy(), deadline, checkpoint)));
+		}
+
+		//wait for the searches until the deadline, or until one of them proves its solution is optimal
+		Result.ExitCause cause = Result.ExitCause.Timeout;
+		try {
+			for (int done = 0; done < searches.size(); done++) {
+				Future<Result> search = completion.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				if (search == null) {
+					break;
+				}
+				if (search.get().cause == Result.ExitCause.ProvedOptimal) {
+					cause = Result.ExitCause.ProvedOptimal;
+					break;
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			throw new RuntimeException("A search of the cooperative tabu solver failed", e.getCause());
+		}
+		finally {
+			for (Future<Result> search : searches) {
+				search.cancel(true);
+			}
+			pool.shutdownNow();
+		}
+
+		Schedule bestSchedule = incumbent.get();
+		if (bestSchedule == null || bestSchedule.makespan() > initSchedule.makespan()) {
+			//no search could publish a solution before the deadline
+			bestSchedule = initSchedule;
+		}
+		return new Result(instance, bestSchedule, cause);
+	}
+
+	/** One of the concurrent tabu searches, publishing its improvements and restarting from the elite pool. */
+	private static class Trajectory extends TabooSolver {
+
+		final int index;
+		final AtomicReference<Schedule> incumbent;
+		final ElitePool elites;
+		final Random random;
+
+		Trajectory(int index, AtomicReference<Schedule> incumbent, ElitePool elites) {
+			//the neighbors are evaluated sequentially, the cores being used by the other searches
+			super(1);
+			this.index = index;
+			this.incumbent = incumbent;
+			this.elites = elites;
+			this.random = new Random(index);
+		}
+
+		Result run(ResourceOrder initOrder, long deadline, Checkpoint checkpoint) {
+			Instance instance = initOrder.instance;
+			MoveEvaluator evaluator = new MoveEvaluator(initOrder);
+			//the first search starts from the initial solution, the other ones from random perturbations of it
+			if (index > 0) {
+				perturb(evaluator, instance.numJobs * instance.numTasks / 10, random);
+			}
+			improved(evaluator, evaluator.toSchedule());
+			//different tenures lead the searches to different regions
+			return search(evaluator, deadline, baseTenure(instance) + 2 * (index % 4), checkpoint);
+		}
+
+		@Override
+		void improved(MoveEvaluator evaluator, Schedule schedule) {
+			elites.offer(evaluator.order, evaluator.makespan());
+			incumbent.accumulateAndGet(schedule, (best, candidate) ->
+					(best == null || candidate.makespan() < best.makespan()) ? candidate : best);
+		}
+
+		@Override
+		boolean restart(MoveEvaluator evaluator, int stagnation) {
+			if (stagnation < RESTART_AFTER) {
+				return false;
+			}
+			ElitePool.Elite elite = elites.pick(random);
+			if (elite == null) {
+				return false;
+			}
+			evaluator.order.copyFrom(elite.order);
+			evaluator.reset();
+			return true;
+		}
+	}
+
+}
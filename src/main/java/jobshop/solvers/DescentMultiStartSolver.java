@@ -7,50 +7,96 @@ import jobshop.Schedule;
 
 import jobshop.solvers.DescentSolverThread;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Runs descents from random greedy solutions concurrently until the deadline, and returns the best solution found.
+ * Each time a start completes, a new one is submitted, so that the number of starts grows with the budget and
+ * with the number of cores. The starts are executed on a pool with one thread per available core, shared by all
+ * the calls to solve : the starts of concurrent calls take turns on it.
+ */
 public class DescentMultiStartSolver implements Solver{
-	
+
+	/** number of starts running at the same time */
 	int threadsNumber;
-	
+
+	private final ExecutorService pool;
+
+	/** Multi-start descent running one start per available core. */
+	public DescentMultiStartSolver() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
 	public DescentMultiStartSolver(int threadsNumber) {
+		if (threadsNumber < 1)
+			throw new IllegalArgumentException("The number of concurrent starts must be positive: " + threadsNumber);
 		this.threadsNumber = threadsNumber;
+		// daemon threads : an idle pool must not prevent the program from exiting
+		this.pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "descent-multistart");
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 
 	@Override
 	public Result solve(Instance instance, long deadline) {
-		
+
+		//best solution found so far by any start
+		AtomicReference<Schedule> incumbent = new AtomicReference<>();
+		int lowerBound = instance.lowerBound();
+
+		CompletionService<Schedule> completion = new ExecutorCompletionService<>(pool);
+		Set<Future<Schedule>> running = new HashSet<>();
+		for (int k = 0; k < this.threadsNumber; k++) {
+			running.add(completion.submit(new DescentSolverThread(instance, deadline, incumbent)));
+		}
+
+		//replace each completed start by a new one until the deadline, then cancel the remaining ones
 		try {
-			Schedule[] results = new Schedule[this.threadsNumber];
-			
-			ExecutorService pool = Executors.newCachedThreadPool();
-			for (int k = 0; k < this.threadsNumber; k++) {
-				Future <Schedule> futureCall = pool.submit(new DescentSolverThread(instance,deadline));
-				Schedule result = futureCall.get();
-				results[k] = result;
-			}
-			pool.shutdown();
-			
-			Schedule bestSchedule = results[0];
-			int bestMakespan = Integer.MAX_VALUE;
-			
-			for (int k = 0; k < this.threadsNumber; k++) {
-				int currentMakespan = results[k].makespan();
-				if (currentMakespan < bestMakespan) {
-					bestMakespan = currentMakespan;
-					bestSchedule = results[k];
+			while (true) {
+				Future<Schedule> start = completion.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				if (start == null) {
+					break;
+				}
+				running.remove(start);
+				start.get();
+				if (System.currentTimeMillis() >= deadline || incumbent.get().makespan() <= lowerBound) {
+					break;
 				}
+				running.add(completion.submit(new DescentSolverThread(instance, deadline, incumbent)));
 			}
-			
-			return new Result(instance, bestSchedule, Result.ExitCause.Timeout);
 		}
-		catch (Exception e) {
-			System.out.println(e.toString());
-			e.printStackTrace();
-			return null;
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			throw new RuntimeException("A start of the multi-start descent failed", e.getCause());
+		}
+		finally {
+			for (Future<Schedule> start : running) {
+				start.cancel(true);
+			}
 		}
+
+		Schedule bestSchedule = incumbent.get();
+		if (bestSchedule == null) {
+			//no start could publish a solution before the deadline
+			bestSchedule = new GloutonSolver("SPT").solve(instance, deadline).schedule;
+		}
+
+		//the bound proves that no start can do better
+		Result.ExitCause cause = bestSchedule.makespan() <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+		return new Result(instance, bestSchedule, cause);
 	}
-	
+
 }
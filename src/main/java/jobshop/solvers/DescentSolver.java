@@ -1,18 +1,50 @@
 package jobshop.solvers;
 
+import jobshop.Checkpoint;
 import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Solver;
-import jobshop.Schedule;
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
-import jobshop.solvers.GloutonSolver;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
 
+/**
+ * Descent on the Nowicki and Smutnicki neighborhood, starting from the best greedy solution.
+ *
+ * With restarts (the default), the solver is an anytime iterated local search : each time a local optimum is
+ * reached, the best solution found so far is perturbed by a few random swaps of its critical path and
+ * a new descent starts from there, until the deadline or until the makespan reaches a lower bound.
+ */
 public class DescentSolver implements Solver {
 
+    /** Maximum number of random swaps applied to perturb a local optimum. */
+    static final int MAX_PERTURBATION = 4;
+
+    private final boolean restarts;
+    private final long seed;
+
+    /** Anytime descent, restarting from perturbations of the best solution until the deadline. */
+    public DescentSolver() {
+        this(true, 0);
+    }
+
+    /**
+     * @param restarts if false, the solver stops at the first local optimum
+     * @param seed seed of the random perturbations
+     */
+    public DescentSolver(boolean restarts, long seed) {
+        this.restarts = restarts;
+        this.seed = seed;
+    }
+
+    @Override
+    public Solver withSeed(long seed) {
+        return new DescentSolver(restarts, seed);
+    }
+
     /** A block represents a subsequence of the critical path such that all tasks in it execute on the same machine.
      * This class identifies a block in a ResourceOrder representation.
      *
@@ -76,11 +108,7 @@ public class DescentSolver implements Solver {
 
         /** Apply this swap on the given resource order, transforming it into a new solution. */
         public void applyOn(ResourceOrder order) {
-            Task task1 = order.tasksByMachine[this.machine][this.t1];
-            Task task2 = order.tasksByMachine[this.machine][this.t2];
-            //swapping
-            order.tasksByMachine[this.machine][this.t1] = task2;
-            order.tasksByMachine[this.machine][this.t2] = task1;
+            order.swap(this.machine, this.t1, this.t2);
         }
         
         @Override
@@ -92,84 +120,166 @@ public class DescentSolver implements Solver {
 
     @Override
     public Result solve(Instance instance, long deadline) {
-        
-    	//determine the initial order using Glouton()
-    	GloutonSolver gloutonSol = new GloutonSolver("SPT");
-    	Result gloutonResult = gloutonSol.solve(instance, deadline);
-    	Schedule initSchedule = gloutonResult.schedule;
-    	ResourceOrder initOrder = new ResourceOrder(initSchedule);
+    	//determine the initial order using the best greedy rule
+    	return solveFrom(GifflerThompsonSolver.initialOrder(instance, deadline), deadline, null);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, Checkpoint checkpoint) {
+    	//continue from the solution of the checkpoint, or else from the best greedy one
+    	ResourceOrder start = checkpoint.load(instance);
+    	Result result = solveFrom(start != null ? start : GifflerThompsonSolver.initialOrder(instance, deadline), deadline, checkpoint);
+    	checkpoint.offer(new ResourceOrder(result.schedule), result.schedule.makespan());
+    	checkpoint.flush();
+    	return result;
+    }
+
+    /**
+     * Local search from the given order, which may be modified.
+     * @param checkpoint records the improvements of the search, if not null
+     */
+    Result solveFrom(ResourceOrder initOrder, long deadline, Checkpoint checkpoint) {
+    	Instance instance = initOrder.instance;
+    	
+    	//heads and tails of the current order, used to evaluate the neighbors without building their schedule
+    	MoveEvaluator evaluator = new MoveEvaluator(initOrder);
+    	
+    	//best solution found so far
+    	ResourceOrder bestOrder = initOrder.copy();
+    	int bestMakespan = evaluator.makespan();
+    	int lowerBound = instance.lowerBound();
+    	Random random = new Random(seed);
     	
+    	Result.ExitCause cause;
+    	while (true) {
+    		boolean localOptimum = descend(evaluator, deadline);
+    		//solutions as good as the best one are accepted, to move across plateaus
+    		if (evaluator.makespan() <= bestMakespan) {
+    			bestMakespan = evaluator.makespan();
+    			bestOrder.copyFrom(evaluator.order);
+    			if (checkpoint != null) {
+    				checkpoint.offer(bestOrder, bestMakespan);
+    			}
+    		}
+    		if (bestMakespan <= lowerBound) {
+    			cause = Result.ExitCause.ProvedOptimal;
+    			break;
+    		}
+    		if (!localOptimum) {
+    			cause = Result.ExitCause.Timeout;
+    			break;
+    		}
+    		if (!restarts) {
+    			cause = Result.ExitCause.Blocked;
+    			break;
+    		}
+    		//restart from a perturbation of the best solution
+    		evaluator.order.copyFrom(bestOrder);
+    		evaluator.reset();
+    		perturb(evaluator, 1 + random.nextInt(MAX_PERTURBATION), random);
+    	}
+    	
+    	return new Result(instance, bestOrder.toSchedule(), cause);
+    }
+
+    /**
+     * Applies the given number of random swaps of the neighborhood of the critical path.
+     * Such swaps never create a cycle, so the order stays feasible.
+     */
+    void perturb(MoveEvaluator evaluator, int numSwaps, Random random) {
+    	for (int k = 0; k < numSwaps; k++) {
+    		List<Swap> swaps = new ArrayList<Swap>();
+    		for (Block block : blocksOfCriticalPath(evaluator.order)) {
+    			swaps.addAll(neighbors(block));
+    		}
+    		if (swaps.isEmpty()) {
+    			return;
+    		}
+    		evaluator.apply(swaps.get(random.nextInt(swaps.size())));
+    	}
+    }
+
+    /**
+     * Moves to the best improving neighbor of the order of the evaluator until a local optimum is reached
+     * or until the deadline. The order of the evaluator is modified in place.
+     * @return true if a local optimum was reached, false if the search was stopped by the deadline
+     */
+    boolean descend(MoveEvaluator evaluator, long deadline) {
     	int minMakespan = Integer.MAX_VALUE;
-    	int makespan = initSchedule.makespan();
-    	ResourceOrder order = initOrder;
-    	Schedule schedule = initSchedule;
+    	int makespan = evaluator.makespan();
     	while (makespan < minMakespan) { //while we have a better solution
+    		if (System.currentTimeMillis() >= deadline || Thread.currentThread().isInterrupted()) {
+    			return false;
+    		}
     		minMakespan = makespan;
-    		int neighborMakespan = Integer.MAX_VALUE;
-    		ResourceOrder bestOrder = order;
-    		Schedule bestSchedule = schedule;
-    		List<Block> blocks = blocksOfCriticalPath(order);
+    		Swap bestSwap = null;
+    		List<Block> blocks = blocksOfCriticalPath(evaluator.order);
     		for (Block block : blocks) {
     			List<Swap> swaps = neighbors(block);
     			for (Swap swap : swaps) {
-    				ResourceOrder neighborOrder = order.copy();
-    				swap.applyOn(neighborOrder);
-    				Schedule neighborSchedule = neighborOrder.toSchedule();
-    				neighborMakespan = neighborSchedule.makespan();
+    				int neighborMakespan = evaluator.evaluate(swap);
     				if (neighborMakespan < makespan) {
     					makespan = neighborMakespan;
-    					bestOrder = neighborOrder;
-    					bestSchedule = neighborSchedule;
+    					bestSwap = swap;
     				}
     			}
     		}
-    		order = bestOrder;
-    		schedule = bestSchedule;
+    		//move to the best neighbor
+    		if (bestSwap != null) {
+    			evaluator.apply(bestSwap);
+    		}
     	}
-    	
-    	return new Result(instance, schedule, Result.ExitCause.Timeout);
+    	return true;
     }
 
     /** Returns a list of all blocks of the critical path. */
     List<Block> blocksOfCriticalPath(ResourceOrder order) {
         
     	List<Block> blockList = new ArrayList<Block>();
+    	Instance instance = order.instance;
         
-        //retrieve the critical path
-        Schedule schedule = order.toSchedule();
-        List<Task> path = schedule.criticalPath();
-        
-        //main loop on the critical path
-        int previousMachine = -1;
-        int blockRange = -1;
-        int firstTaskIndex = -1;
-        for (int k = 0; k < path.size(); k++) {
-        	Task currentTask = path.get(k);
-        	int currentMachine = order.machine(currentTask);
-        	
-        	if (currentMachine == previousMachine) { //we're still on the same machine
-        		blockRange++;
-        		//we finished on a block
-        		if(k == (path.size()-1)) {
-        			blockList.add(new Block(previousMachine,firstTaskIndex,(firstTaskIndex+blockRange-1)));
-        		}
-        	}
-        	else { //we've changed of machine
-        		if (blockRange > 1) { //we've identify a valid block
-        			//create the block
-        			blockList.add(new Block(previousMachine,firstTaskIndex,(firstTaskIndex+blockRange-1)));
-        			firstTaskIndex = order.taskIndex(currentTask);
-        			blockRange = 1;
-        			previousMachine = currentMachine;
-        		}
-        		else {
-        			firstTaskIndex = order.taskIndex(currentTask);
-        			blockRange = 1;
-        			previousMachine = currentMachine;
-        		}
-        	}
-        }
+        //compute the start times, recording for each task the predecessor that determines its start time
+    	int[] startTimes = new int[instance.numJobs * instance.numTasks];
+    	int[] criticalPredecessors = new int[instance.numJobs * instance.numTasks];
+    	int[] queue = new int[instance.numJobs * instance.numTasks];
+    	order.computeStartTimes(startTimes, criticalPredecessors, queue);
+    	
+    	//the critical path ends with the last task that finishes last
+    	int last = -1;
+    	int makespan = -1;
+    	for (int job = 0; job < instance.numJobs; job++) {
+    		int lastOfJob = order.taskId(job, instance.numTasks - 1);
+    		int end = startTimes[lastOfJob] + instance.duration(job, instance.numTasks - 1);
+    		if (end > makespan) {
+    			makespan = end;
+    			last = lastOfJob;
+    		}
+    	}
         
+        //walk back the critical path : consecutive tasks on the same machine form a block
+    	int currentMachine = -1;
+    	int firstTaskIndex = -1;
+    	int lastTaskIndex = -1;
+    	for (int task = last; task != -1; task = criticalPredecessors[task]) {
+    		int machine = instance.machine(order.jobOf(task), order.taskOf(task));
+    		if (machine == currentMachine) { //we're still on the same machine
+    			firstTaskIndex = order.position(task);
+    		}
+    		else { //we've changed of machine
+    			if (lastTaskIndex > firstTaskIndex) { //we've identify a valid block
+    				blockList.add(new Block(currentMachine, firstTaskIndex, lastTaskIndex));
+    			}
+    			currentMachine = machine;
+    			firstTaskIndex = order.position(task);
+    			lastTaskIndex = firstTaskIndex;
+    		}
+    	}
+    	if (lastTaskIndex > firstTaskIndex) {
+    		blockList.add(new Block(currentMachine, firstTaskIndex, lastTaskIndex));
+    	}
+    	
+    	//blocks were found from the end of the path
+    	Collections.reverse(blockList);
         return blockList;
     }
 
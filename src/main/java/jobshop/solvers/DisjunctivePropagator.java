@@ -0,0 +1,431 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+
+/**
+ * Constraint propagation on the time windows of the tasks, for the schedules whose makespan is below a given bound.
+ *
+ * Each task has an earliest start (est) and a latest completion (lct). The windows are narrowed until a fixpoint by :
+ *  - the precedences of the jobs : a task starts after the end of the previous one and ends before the start of the next one
+ *  - for each machine, overload checking : the tasks of a set must fit between their smallest est and their largest lct
+ *  - for each machine, edge finding : a task that cannot end before the end of a set of tasks must start after all of them,
+ *    and symmetrically for the tasks that must end before a set
+ *  - for each machine, not-first / not-last : a task that cannot be executed after all the tasks of a set must end before
+ *    the latest start of one of them, and symmetrically
+ *
+ * The machine rules run in O(J log J) per machine with Θ-Λ-trees (P. Vilím, "O(n log n) filtering algorithms for unary
+ * resource constraint", CPAIOR 2004). The rules that narrow the lct are the ones narrowing the est applied to the mirrored
+ * windows [-lct, -est].
+ *
+ * Only the active tasks are considered by the rules : for instance, the tasks already scheduled before all the other tasks
+ * of their machine can be deactivated once the windows of the remaining tasks account for them.
+ */
+final class DisjunctivePropagator {
+
+    final Instance instance;
+
+    /** Earliest start and latest completion of each task, by task identifier. */
+    final int[] est;
+    final int[] lct;
+
+    /** Tasks considered by the rules, by task identifier (all of them initially). */
+    final boolean[] active;
+
+    // sum of the durations of the tasks before and after each task in its job
+    private final int[] heads;
+    private final int[] tails;
+
+    // windows of the active tasks of the machine being propagated, by local index
+    private final int[] ids;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] durations;
+    private final int[] newBounds;
+
+    // local indices sorted by some key, and rank of each local index in the order of the est
+    private final long[] keys;
+    private final int[] order;
+    private final int[] ranks;
+    // local indices by increasing latest start, for the not-last rule
+    private final int[] byLatestStart;
+
+    private final ThetaLambdaTree tree;
+
+    DisjunctivePropagator(Instance instance) {
+        this.instance = instance;
+        int numOperations = instance.numJobs * instance.numTasks;
+        est = new int[numOperations];
+        lct = new int[numOperations];
+        active = new boolean[numOperations];
+        heads = new int[numOperations];
+        tails = new int[numOperations];
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                int id = instance.taskId(job, task);
+                heads[id] = instance.jobLoad(job) - instance.remainingProcessingTime(job, task);
+                tails[id] = instance.remainingProcessingTime(job, task) - instance.duration(id);
+            }
+        }
+
+        int n = instance.numJobs;
+        ids = new int[n];
+        starts = new int[n];
+        ends = new int[n];
+        durations = new int[n];
+        newBounds = new int[n];
+        keys = new long[n];
+        order = new int[n];
+        ranks = new int[n];
+        byLatestStart = new int[n];
+        tree = new ThetaLambdaTree(n);
+    }
+
+    /** Activates all the tasks, with the windows allowed by their job for a makespan of at most the given value. */
+    void reset(int makespan) {
+        for(int id = 0 ; id < est.length ; id++) {
+            est[id] = heads[id];
+            lct[id] = makespan - tails[id];
+        }
+        Arrays.fill(active, true);
+    }
+
+    /**
+     * Narrows the windows of the active tasks until a fixpoint.
+     * @return false if some window becomes empty or some machine is overloaded : there is no schedule in the windows
+     */
+    boolean propagate() {
+        boolean changed = true;
+        while(changed) {
+            if(!propagateJobs())
+                return false;
+            changed = false;
+            for(int machine = 0 ; machine < instance.numMachines ; machine++) {
+                int n = collect(machine);
+                if(n < 2)
+                    continue;
+
+                // est : edge finding and not-first, which is not-last on the mirrored windows
+                if(!edgeFinding(n))
+                    return false;
+                mirror(n);
+                if(!edgeFinding(n))
+                    return false;
+                notLast(n);
+                mirror(n);
+                notLast(n);
+
+                for(int k = 0 ; k < n ; k++) {
+                    int id = ids[k];
+                    if(starts[k] > est[id] || ends[k] < lct[id]) {
+                        est[id] = starts[k];
+                        lct[id] = ends[k];
+                        changed = true;
+                        if(est[id] + durations[k] > lct[id])
+                            return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Propagates the precedences between consecutive active tasks of each job. */
+    private boolean propagateJobs() {
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            int first = instance.taskId(job, 0);
+            int last = instance.taskId(job, instance.numTasks - 1);
+            for(int id = first + 1 ; id <= last ; id++) {
+                if(active[id - 1] && active[id])
+                    est[id] = Math.max(est[id], est[id - 1] + instance.duration(id - 1));
+            }
+            for(int id = last - 1 ; id >= first ; id--) {
+                if(active[id] && active[id + 1])
+                    lct[id] = Math.min(lct[id], lct[id + 1] - instance.duration(id + 1));
+            }
+            for(int id = first ; id <= last ; id++) {
+                if(active[id] && est[id] + instance.duration(id) > lct[id])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /** Copies the windows of the active tasks of the machine, returns their number. */
+    private int collect(int machine) {
+        int n = 0;
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            if(!instance.usesMachine(job, machine))
+                continue;
+            int id = instance.taskId(job, instance.task_with_machine(job, machine));
+            if(!active[id])
+                continue;
+            ids[n] = id;
+            starts[n] = est[id];
+            ends[n] = lct[id];
+            durations[n] = instance.duration(id);
+            n++;
+        }
+        return n;
+    }
+
+    /** Replaces the windows [est, lct] by [-lct, -est]. */
+    private void mirror(int n) {
+        for(int k = 0 ; k < n ; k++) {
+            int start = starts[k];
+            starts[k] = -ends[k];
+            ends[k] = -start;
+        }
+    }
+
+    /** Sorts the local indices by increasing key into `order`. */
+    private void sort(int n) {
+        Arrays.sort(keys, 0, n);
+        for(int k = 0 ; k < n ; k++)
+            order[k] = (int) keys[k];
+    }
+
+    private static long key(int value, int index) {
+        return ((long) value << 32) | index;
+    }
+
+    /** Places the tasks in the leaves of the tree by increasing est. */
+    private void rankByStart(int n) {
+        for(int k = 0 ; k < n ; k++)
+            keys[k] = key(starts[k], k);
+        sort(n);
+        for(int r = 0 ; r < n ; r++)
+            ranks[order[r]] = r;
+        tree.clear(n);
+    }
+
+    /**
+     * Overload checking and edge finding on the est. Going through the tasks by decreasing lct, the task j of largest
+     * lct is turned gray : if the set Θ of the white tasks plus a gray task i cannot complete before the lct of Θ, then
+     * i must start after the end of Θ.
+     * @return false if the machine is overloaded
+     */
+    private boolean edgeFinding(int n) {
+        rankByStart(n);
+        for(int k = 0 ; k < n ; k++) {
+            tree.insert(ranks[k], k, starts[k], durations[k]);
+            newBounds[k] = starts[k];
+        }
+        for(int k = 0 ; k < n ; k++)
+            keys[k] = key(-ends[k], k);
+        sort(n);
+
+        for(int q = 0 ; q < n - 1 ; q++) {
+            int j = order[q];
+            if(tree.ect() > ends[j])
+                return false;
+            tree.gray(ranks[j]);
+            int next = order[q + 1];
+            while(tree.ectGray() > ends[next]) {
+                int i = tree.responsible();
+                if(i == -1)
+                    break;
+                newBounds[i] = Math.max(newBounds[i], tree.ect());
+                tree.remove(ranks[i]);
+            }
+        }
+        if(tree.ect() > ends[order[n - 1]])
+            return false;
+        for(int k = 0 ; k < n ; k++)
+            starts[k] = newBounds[k];
+        return true;
+    }
+
+    /**
+     * Not-last on the lct. Going through the tasks i by increasing lct, Θ holds the tasks whose latest start is before
+     * the lct of i : if i cannot be executed after all the other tasks of Θ, it must end before the latest of their
+     * latest starts.
+     */
+    private void notLast(int n) {
+        rankByStart(n);
+        for(int k = 0 ; k < n ; k++) {
+            keys[k] = key(ends[k] - durations[k], k);
+            newBounds[k] = ends[k];
+        }
+        sort(n);
+        // tasks by increasing latest start, to be inserted in Θ
+        System.arraycopy(order, 0, byLatestStart, 0, n);
+        for(int k = 0 ; k < n ; k++)
+            keys[k] = key(ends[k], k);
+        sort(n);
+
+        int inserted = 0;
+        for(int q = 0 ; q < n ; q++) {
+            int i = order[q];
+            while(inserted < n && ends[i] > ends[byLatestStart[inserted]] - durations[byLatestStart[inserted]]) {
+                int j = byLatestStart[inserted++];
+                tree.insert(ranks[j], j, starts[j], durations[j]);
+            }
+            // latest start of the tasks of Θ other than i
+            int last = inserted - 1;
+            if(last >= 0 && byLatestStart[last] == i)
+                last--;
+            if(last < 0)
+                continue;
+            boolean inTree = tree.contains(ranks[i]);
+            if(inTree)
+                tree.remove(ranks[i]);
+            if(tree.ect() > ends[i] - durations[i]) {
+                int j = byLatestStart[last];
+                newBounds[i] = Math.min(newBounds[i], ends[j] - durations[j]);
+            }
+            if(inTree)
+                tree.insert(ranks[i], i, starts[i], durations[i]);
+        }
+        for(int k = 0 ; k < n ; k++)
+            ends[k] = newBounds[k];
+    }
+
+    /**
+     * Balanced binary tree whose leaves are the tasks sorted by est. Each task is white (in Θ), gray (in Λ) or absent.
+     * Each node holds, for the tasks of its subtree, the total duration and earliest completion of the white tasks,
+     * and the largest ones obtained by adding at most one gray task, with the gray task responsible for them.
+     */
+    private static final class ThetaLambdaTree {
+        private static final int NONE = Integer.MIN_VALUE / 4;
+
+        private int size;
+        private final int[] sum;
+        private final int[] ect;
+        private final int[] sumGray;
+        private final int[] ectGray;
+        private final int[] sumResponsible;
+        private final int[] ectResponsible;
+        // task of each leaf and its est and duration
+        private final int[] tasks;
+        private final int[] leafStarts;
+        private final int[] leafDurations;
+        private final boolean[] white;
+
+        ThetaLambdaTree(int capacity) {
+            int leaves = 1;
+            while(leaves < capacity)
+                leaves *= 2;
+            sum = new int[2 * leaves];
+            ect = new int[2 * leaves];
+            sumGray = new int[2 * leaves];
+            ectGray = new int[2 * leaves];
+            sumResponsible = new int[2 * leaves];
+            ectResponsible = new int[2 * leaves];
+            tasks = new int[leaves];
+            leafStarts = new int[leaves];
+            leafDurations = new int[leaves];
+            white = new boolean[leaves];
+        }
+
+        /** Empties the tree, which will hold n leaves. */
+        void clear(int n) {
+            size = 1;
+            while(size < n)
+                size *= 2;
+            for(int node = 1 ; node < 2 * size ; node++)
+                empty(node);
+            Arrays.fill(tasks, 0, size, -1);
+            Arrays.fill(white, 0, size, false);
+        }
+
+        private void empty(int node) {
+            sum[node] = 0;
+            ect[node] = NONE;
+            sumGray[node] = 0;
+            ectGray[node] = NONE;
+            sumResponsible[node] = -1;
+            ectResponsible[node] = -1;
+        }
+
+        boolean contains(int leaf) {
+            return white[leaf];
+        }
+
+        /** Adds the task as a white leaf. */
+        void insert(int leaf, int task, int start, int duration) {
+            tasks[leaf] = task;
+            leafStarts[leaf] = start;
+            leafDurations[leaf] = duration;
+            white[leaf] = true;
+            int node = size + leaf;
+            sum[node] = duration;
+            ect[node] = start + duration;
+            sumGray[node] = duration;
+            ectGray[node] = start + duration;
+            sumResponsible[node] = -1;
+            ectResponsible[node] = -1;
+            update(node);
+        }
+
+        /** Turns a white leaf gray. */
+        void gray(int leaf) {
+            white[leaf] = false;
+            int node = size + leaf;
+            sum[node] = 0;
+            ect[node] = NONE;
+            sumGray[node] = leafDurations[leaf];
+            ectGray[node] = leafStarts[leaf] + leafDurations[leaf];
+            sumResponsible[node] = tasks[leaf];
+            ectResponsible[node] = tasks[leaf];
+            update(node);
+        }
+
+        void remove(int leaf) {
+            white[leaf] = false;
+            empty(size + leaf);
+            update(size + leaf);
+        }
+
+        /** Earliest completion of the white tasks. */
+        int ect() {
+            return ect[1];
+        }
+
+        /** Largest earliest completion of the white tasks plus one gray task. */
+        int ectGray() {
+            return ectGray[1];
+        }
+
+        /** Gray task responsible for ectGray() (-1 if it is reached without gray task). */
+        int responsible() {
+            return ectResponsible[1];
+        }
+
+        private void update(int node) {
+            for(node /= 2 ; node >= 1 ; node /= 2) {
+                int l = 2 * node;
+                int r = l + 1;
+                sum[node] = sum[l] + sum[r];
+                ect[node] = Math.max(ect[r], ect[l] + sum[r]);
+
+                int a = sumGray[l] + sum[r];
+                int b = sum[l] + sumGray[r];
+                // on ties, the value reached with a gray task is kept
+                if(a > b || (a == b && sumResponsible[l] != -1)) {
+                    sumGray[node] = a;
+                    sumResponsible[node] = sumResponsible[l];
+                } else {
+                    sumGray[node] = b;
+                    sumResponsible[node] = sumResponsible[r];
+                }
+
+                int best = ectGray[r];
+                int responsible = ectResponsible[r];
+                int viaRight = ect[l] + sumGray[r];
+                if(viaRight > best || (viaRight == best && responsible == -1)) {
+                    best = viaRight;
+                    responsible = sumResponsible[r];
+                }
+                int viaLeft = ectGray[l] + sum[r];
+                if(viaLeft > best || (viaLeft == best && responsible == -1)) {
+                    best = viaLeft;
+                    responsible = ectResponsible[l];
+                }
+                ectGray[node] = best;
+                ectResponsible[node] = responsible;
+            }
+        }
+    }
+}
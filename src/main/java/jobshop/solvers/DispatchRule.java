@@ -0,0 +1,44 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+import java.util.Random;
+
+/**
+ * Priority rule of a greedy construction : among the tasks that can be dispatched, the one with the
+ * lowest key has the highest priority.
+ */
+@FunctionalInterface
+public interface DispatchRule {
+
+    /** Key of the given task (the lower, the higher the priority). */
+    int key(Instance instance, int job, int task);
+
+    /** Shortest processing time. */
+    DispatchRule SPT = (instance, job, task) -> instance.duration(job, task);
+
+    /** Longest processing time. */
+    DispatchRule LPT = (instance, job, task) -> -instance.duration(job, task);
+
+    /** Shortest remaining processing time of the job. */
+    DispatchRule SRPT = (instance, job, task) -> instance.remainingProcessingTime(job, task);
+
+    /** Longest remaining processing time of the job. */
+    DispatchRule LRPT = (instance, job, task) -> -instance.remainingProcessingTime(job, task);
+
+    /** Random priorities, drawn again each time a task becomes ready : the construction is randomized. */
+    static DispatchRule random(Random random) {
+        return (instance, job, task) -> random.nextInt();
+    }
+
+    /** Returns the rule with the given name (SPT, LPT, SRPT or LRPT), or null if there is none. */
+    static DispatchRule byName(String name) {
+        switch(name) {
+            case "SPT": return SPT;
+            case "LPT": return LPT;
+            case "SRPT": return SRPT;
+            case "LRPT": return LRPT;
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+
+/**
+ * Greedy construction of a schedule, one task at a time : the next task of a job is dispatched on its machine
+ * at the earliest time, after all the tasks already dispatched. The task dispatched is the one that can start
+ * the earliest, ties being broken by a dispatch rule, then by job number.
+ *
+ * The earliest start of the next task of a job is max(ready, free), where `ready` is the end of the previous
+ * task of the job and `free` the time at which its machine is available. For each machine and each rule,
+ * the jobs waiting for the machine are split in two heaps :
+ *  - the jobs that are ready before the machine is free, which can all start at `free` : ordered by rule key
+ *  - the jobs that are ready after, which start when they are ready : ordered by (ready, rule key)
+ * When the machine becomes free later, the jobs that are now ready move from the second heap to the first one.
+ * The best job of each machine is then kept in a heap of machines. Each dispatch thus costs O(log J) per rule
+ * instead of a scan of all the jobs, and a complete schedule is built in O(N log J).
+ */
+final class Dispatcher {
+
+    final Instance instance;
+
+    private final DispatchRule[] rules;
+
+    // for each rule : rule key of the next task of each job and the heaps described above
+    private final int[][] keys;
+    private final IndexedHeaps[] ready;
+    private final IndexedHeaps[] waiting;
+    private final IndexedHeaps[] machines;
+    // for each rule and machine, best job waiting for the machine, its earliest start and its key,
+    // when the machine was last refreshed
+    private final int[][] bestJobs;
+    private final int[][] bestStarts;
+    private final int[][] bestKeys;
+
+    // for each job, next task to dispatch and machine of this task
+    private final int[] nextTasks;
+    private final int[] nextMachines;
+
+    private final int[] jobTimes;
+    private final int[] machineTimes;
+
+    private final int[][] startTimes;
+    private final ResourceOrder order;
+    private int remaining;
+
+    /** Prepares the dispatch of all the tasks of the instance, with the given rules. */
+    Dispatcher(Instance instance, DispatchRule... rules) {
+        this.instance = instance;
+        this.rules = rules;
+
+        nextTasks = new int[instance.numJobs];
+        nextMachines = new int[instance.numJobs];
+        jobTimes = new int[instance.numJobs];
+        machineTimes = new int[instance.numMachines];
+        startTimes = new int[instance.numJobs][instance.numTasks];
+        order = new ResourceOrder(instance);
+        remaining = instance.numJobs * instance.numTasks;
+
+        keys = new int[rules.length][instance.numJobs];
+        ready = new IndexedHeaps[rules.length];
+        waiting = new IndexedHeaps[rules.length];
+        machines = new IndexedHeaps[rules.length];
+        bestJobs = new int[rules.length][instance.numMachines];
+        bestStarts = new int[rules.length][instance.numMachines];
+        bestKeys = new int[rules.length][instance.numMachines];
+        for(int r = 0 ; r < rules.length ; r++) {
+            ready[r] = new IndexedHeaps(instance.numMachines, instance.numJobs, keys[r], null, null);
+            waiting[r] = new IndexedHeaps(instance.numMachines, instance.numJobs, jobTimes, keys[r], null);
+            machines[r] = new IndexedHeaps(1, instance.numMachines, bestStarts[r], bestKeys[r], bestJobs[r]);
+        }
+
+        if(instance.numTasks == 0)
+            return;
+        for(int j = 0 ; j < instance.numJobs ; j++)
+            enqueue(j);
+        for(int m = 0 ; m < instance.numMachines ; m++)
+            refresh(m);
+    }
+
+    /** Returns true if some tasks remain to be dispatched. */
+    boolean hasNext() {
+        return remaining > 0;
+    }
+
+    /** Job whose next task has the highest priority for the rule of the given index. */
+    int peek(int rule) {
+        if(machines[rule].isEmpty(0))
+            throw new IllegalStateException("No task to dispatch");
+        return bestJobs[rule][machines[rule].top(0)];
+    }
+
+    /** Dispatches the task of highest priority for the rule of the given index and returns its job. */
+    int dispatchNext(int rule) {
+        int job = peek(rule);
+        dispatch(job);
+        return job;
+    }
+
+    /** Index of the next task of the job to dispatch (numTasks if all its tasks are dispatched). */
+    int nextTask(int job) {
+        return nextTasks[job];
+    }
+
+    /** Earliest start time of the next task of the job. */
+    int earliestStart(int job) {
+        return Math.max(jobTimes[job], machineTimes[nextMachines[job]]);
+    }
+
+    /** Dispatches the next task of the job at its earliest start time. */
+    void dispatch(int job) {
+        int task = nextTasks[job];
+        if(task == instance.numTasks)
+            throw new IllegalArgumentException("All tasks of job " + job + " are already dispatched");
+        int machine = nextMachines[job];
+        int start = earliestStart(job);
+        int end = start + instance.duration(job, task);
+
+        for(int r = 0 ; r < rules.length ; r++) {
+            if(ready[r].contains(job))
+                ready[r].remove(machine, job);
+            else
+                waiting[r].remove(machine, job);
+        }
+
+        startTimes[job][task] = start;
+        order.addTask(machine, job, task);
+        jobTimes[job] = end;
+        machineTimes[machine] = end;
+        nextTasks[job]++;
+        remaining--;
+
+        // the jobs that were waiting for the machine to become free now start at the same time
+        for(int r = 0 ; r < rules.length ; r++) {
+            while(!waiting[r].isEmpty(machine) && jobTimes[waiting[r].top(machine)] <= end) {
+                int other = waiting[r].top(machine);
+                waiting[r].remove(machine, other);
+                ready[r].add(machine, other);
+            }
+        }
+
+        if(nextTasks[job] < instance.numTasks) {
+            enqueue(job);
+            refresh(nextMachines[job]);
+        }
+        refresh(machine);
+    }
+
+    /** Resource order of the tasks dispatched so far. */
+    ResourceOrder order() {
+        return order;
+    }
+
+    /** Schedule of the tasks dispatched, once all of them are. */
+    Schedule schedule() {
+        if(hasNext())
+            throw new IllegalStateException(remaining + " tasks are still to be dispatched");
+        return new Schedule(instance, startTimes);
+    }
+
+    /** Adds the job to the queues of the machine of its next task. */
+    private void enqueue(int job) {
+        int task = nextTasks[job];
+        int machine = instance.machine(job, task);
+        nextMachines[job] = machine;
+        for(int r = 0 ; r < rules.length ; r++) {
+            keys[r][job] = rules[r].key(instance, job, task);
+            if(jobTimes[job] <= machineTimes[machine])
+                ready[r].add(machine, job);
+            else
+                waiting[r].add(machine, job);
+        }
+    }
+
+    /** Best job waiting for the machine according to the rule, or -1 if no job waits for it. */
+    private int best(int rule, int machine) {
+        if(!ready[rule].isEmpty(machine))
+            return ready[rule].top(machine);
+        if(!waiting[rule].isEmpty(machine))
+            return waiting[rule].top(machine);
+        return -1;
+    }
+
+    /**
+     * Updates the position of the machine in the heaps of machines, after a change of its queues.
+     * Only the machine of the task dispatched and the machine of the next task of its job need to be refreshed :
+     * the best jobs of the other machines and their earliest start do not change.
+     */
+    private void refresh(int machine) {
+        for(int r = 0 ; r < rules.length ; r++) {
+            int job = best(r, machine);
+            if(job == -1) {
+                if(machines[r].contains(machine))
+                    machines[r].remove(0, machine);
+                continue;
+            }
+            bestJobs[r][machine] = job;
+            bestStarts[r][machine] = earliestStart(job);
+            bestKeys[r][machine] = keys[r][job];
+            if(machines[r].contains(machine))
+                machines[r].update(0, machine);
+            else
+                machines[r].add(0, machine);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package jobshop.solvers;
+
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of the best resource orders found by several searches running concurrently.
+ *
+ * The orders are added under a lock, so that two searches offering the same order cannot store it in two
+ * different slots, but they are read without it : improvements are rare compared to the reads. The orders of
+ * the pool are copies that are never modified, so they can be read by any thread.
+ */
+class ElitePool {
+
+    /** A resource order of the pool with its makespan. */
+    static final class Elite {
+        final ResourceOrder order;
+        final int makespan;
+
+        Elite(ResourceOrder order, int makespan) {
+            this.order = order;
+            this.makespan = makespan;
+        }
+    }
+
+    private final AtomicReferenceArray<Elite> slots;
+
+    ElitePool(int capacity) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("The capacity of the pool must be positive: " + capacity);
+        slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Adds a copy of the order to the pool if the pool is not full or if the order is better than the worst
+     * one of the pool, which is then removed. An order that is already in the pool is not added twice.
+     * @return true if the order was added
+     */
+    synchronized boolean offer(ResourceOrder order, int makespan) {
+        // empty slot, or else slot of the worst order
+        int worst = -1;
+        Elite worstElite = null;
+        for(int k = 0 ; k < slots.length() ; k++) {
+            Elite elite = slots.get(k);
+            if(elite == null) {
+                if(worst == -1 || worstElite != null) {
+                    worst = k;
+                    worstElite = null;
+                }
+                continue;
+            }
+            if(elite.makespan == makespan && elite.order.equals(order))
+                return false;
+            if(worst == -1 || (worstElite != null && elite.makespan > worstElite.makespan)) {
+                worst = k;
+                worstElite = elite;
+            }
+        }
+        if(worstElite != null && makespan >= worstElite.makespan)
+            return false;
+
+        slots.set(worst, new Elite(order.copy(), makespan));
+        return true;
+    }
+
+    /** Returns an order of the pool chosen at random, or null if the pool is empty. The order must not be modified. */
+    Elite pick(Random random) {
+        int count = 0;
+        Elite chosen = null;
+        // reservoir sampling on the non-empty slots
+        for(int k = 0 ; k < slots.length() ; k++) {
+            Elite elite = slots.get(k);
+            if(elite != null && random.nextInt(++count) == 0)
+                chosen = elite;
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,273 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.JobNumbers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Genetic algorithm on the job numbers encoding.
+ *
+ * A chromosome is a sequence of job numbers in which each job appears once per task : the k-th occurrence of a job
+ * stands for its k-th task. It is decoded like JobNumbers.toSchedule(), each task starting as early as possible after
+ * the tasks before it in the sequence, so that every chromosome is a valid schedule.
+ *
+ * Each generation replaces the whole population. The best individual is kept, each other one is the child of two
+ * parents chosen by binary tournament, by job order crossover (JOX) : the genes of a random subset of the jobs stay at
+ * their place in the first parent, and the other places are filled with the other genes of the second parent, in
+ * their order. A child is then mutated, with some probability, by swapping two of its genes.
+ *
+ * The chromosomes of the current and of the next generation are stored in a single array, so that a generation does
+ * not allocate any individual. The next generation is split in slices, each one built and evaluated by a worker with
+ * its own random generator and buffers : the result only depends on the seed and the number of threads.
+ */
+public class GeneticSolver implements Solver {
+
+	/** number of individuals of a generation */
+	static final int POPULATION = 1000;
+
+	/** probability for a child to be mutated */
+	static final double MUTATION_RATE = 0.2;
+
+	private final int populationSize;
+	private final int threads;
+	private final long seed;
+
+	/** Genetic algorithm using all the available cores. */
+	public GeneticSolver() {
+		this(POPULATION, Runtime.getRuntime().availableProcessors(), 0);
+	}
+
+	public GeneticSolver(int populationSize, int threads, long seed) {
+		if (populationSize < 2)
+			throw new IllegalArgumentException("The population must have at least two individuals: " + populationSize);
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+		this.populationSize = populationSize;
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	@Override
+	public Solver withSeed(long seed) {
+		return new GeneticSolver(populationSize, threads, seed);
+	}
+
+	@Override
+	public Result solve(Instance instance, long deadline) {
+		Population population = new Population(instance, populationSize);
+		Random random = new Random(seed);
+
+		//the next generation, except the best individual, is split between the workers
+		List<Worker> workers = new ArrayList<>(threads);
+		int slice = (populationSize - 1 + threads - 1) / threads;
+		for (int k = 0; k < threads; k++) {
+			int from = 1 + k * slice;
+			int to = Math.min(populationSize, from + slice);
+			if (from < to) {
+				workers.add(new Worker(population, from, to, new Random(random.nextLong())));
+			}
+		}
+
+		//first generation : the best greedy schedule and random sequences
+		JobNumbers greedy = new JobNumbers(GifflerThompsonSolver.initialOrder(instance, deadline).toSchedule());
+		System.arraycopy(greedy.jobs, 0, population.genes, 0, population.length);
+		population.makespans[0] = workers.get(0).decode(0);
+		for (int i = 1; i < populationSize; i++) {
+			int offset = i * population.length;
+			for (int job = 0; job < instance.numJobs; job++) {
+				for (int task = 0; task < instance.numTasks; task++) {
+					population.genes[offset + job * instance.numTasks + task] = job;
+				}
+			}
+			//Fisher-Yates shuffle
+			for (int k = population.length - 1; k > 0; k--) {
+				int l = random.nextInt(k + 1);
+				int gene = population.genes[offset + k];
+				population.genes[offset + k] = population.genes[offset + l];
+				population.genes[offset + l] = gene;
+			}
+			population.makespans[i] = workers.get(0).decode(i);
+		}
+		population.best = population.bestIndividual(0);
+
+		// daemon threads : a pool left behind by an interrupted run must not prevent the program from exiting
+		ExecutorService pool = Executors.newFixedThreadPool(workers.size(), runnable -> {
+			Thread thread = new Thread(runnable, "genetic");
+			thread.setDaemon(true);
+			return thread;
+		});
+		int lowerBound = instance.lowerBound();
+		try {
+			while (population.makespans[population.best] > lowerBound && System.currentTimeMillis() < deadline) {
+				//elitism : the best individual is the first one of the next generation
+				int next = populationSize - population.current;
+				System.arraycopy(population.genes, population.best * population.length, population.genes, next * population.length, population.length);
+				population.makespans[next] = population.makespans[population.best];
+
+				for (Future<Void> future : pool.invokeAll(workers)) {
+					future.get();
+				}
+				population.current = next;
+				population.best = population.bestIndividual(next);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			throw new RuntimeException("A worker of the genetic solver failed", e.getCause());
+		}
+		finally {
+			pool.shutdownNow();
+		}
+
+		JobNumbers best = new JobNumbers(instance);
+		System.arraycopy(population.genes, population.best * population.length, best.jobs, 0, population.length);
+		best.nextToSet = population.length;
+		Result.ExitCause cause = population.makespans[population.best] <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+		return new Result(instance, best.toSchedule(), cause);
+	}
+
+	/** Chromosomes and makespans of the current and the next generation. */
+	private static final class Population {
+		final Instance instance;
+		final int size;
+		// number of genes of a chromosome
+		final int length;
+
+		// individual i has the genes [i * length, (i + 1) * length), the current generation is [current, current + size)
+		final int[] genes;
+		final int[] makespans;
+		int current;
+		int best;
+
+		Population(Instance instance, int size) {
+			this.instance = instance;
+			this.size = size;
+			this.length = instance.numJobs * instance.numTasks;
+			this.genes = new int[2 * size * length];
+			this.makespans = new int[2 * size];
+		}
+
+		/** Individual of smallest makespan among the generation starting at the given one. */
+		int bestIndividual(int first) {
+			int best = first;
+			for (int i = first + 1; i < first + size; i++) {
+				if (makespans[i] < makespans[best]) {
+					best = i;
+				}
+			}
+			return best;
+		}
+	}
+
+	/** Builds and evaluates a slice of the next generation. */
+	private static final class Worker implements Callable<Void> {
+		final Population population;
+		final int from;
+		final int to;
+		final Random random;
+
+		// buffers of the decoding and of the crossover
+		final int[] machineTimes;
+		final int[] jobTimes;
+		final int[] nextTasks;
+		final boolean[] kept;
+
+		Worker(Population population, int from, int to, Random random) {
+			this.population = population;
+			this.from = from;
+			this.to = to;
+			this.random = random;
+			machineTimes = new int[population.instance.numMachines];
+			jobTimes = new int[population.instance.numJobs];
+			nextTasks = new int[population.instance.numJobs];
+			kept = new boolean[population.instance.numJobs];
+		}
+
+		@Override
+		public Void call() {
+			int next = population.size - population.current;
+			for (int i = from; i < to; i++) {
+				int child = next + i;
+				crossover(tournament(), tournament(), child);
+				if (random.nextDouble() < MUTATION_RATE) {
+					mutate(child);
+				}
+				population.makespans[child] = decode(child);
+			}
+			return null;
+		}
+
+		/** Better of two random individuals of the current generation. */
+		int tournament() {
+			int first = population.current + random.nextInt(population.size);
+			int second = population.current + random.nextInt(population.size);
+			return population.makespans[first] <= population.makespans[second] ? first : second;
+		}
+
+		/** Job order crossover of the two parents into the child. */
+		void crossover(int first, int second, int child) {
+			int[] genes = population.genes;
+			for (int job = 0; job < kept.length; job++) {
+				kept[job] = random.nextBoolean();
+			}
+			int firstOffset = first * population.length;
+			int childOffset = child * population.length;
+			int read = second * population.length;
+			for (int k = 0; k < population.length; k++) {
+				int gene = genes[firstOffset + k];
+				if (!kept[gene]) {
+					//next gene of the second parent whose job is not kept
+					while (kept[genes[read]]) {
+						read++;
+					}
+					gene = genes[read++];
+				}
+				genes[childOffset + k] = gene;
+			}
+		}
+
+		/** Swaps two random genes of the individual. */
+		void mutate(int individual) {
+			int offset = individual * population.length;
+			int k = offset + random.nextInt(population.length);
+			int l = offset + random.nextInt(population.length);
+			int gene = population.genes[k];
+			population.genes[k] = population.genes[l];
+			population.genes[l] = gene;
+		}
+
+		/** Makespan of the semi-active schedule given by the chromosome of the individual. */
+		int decode(int individual) {
+			Instance instance = population.instance;
+			Arrays.fill(machineTimes, 0);
+			Arrays.fill(jobTimes, 0);
+			Arrays.fill(nextTasks, 0);
+			int[] genes = population.genes;
+			int offset = individual * population.length;
+			int makespan = 0;
+			for (int k = offset; k < offset + population.length; k++) {
+				int job = genes[k];
+				int id = instance.taskId(job, nextTasks[job]++);
+				int machine = instance.machine(id);
+				int end = Math.max(jobTimes[job], machineTimes[machine]) + instance.duration(id);
+				jobTimes[job] = end;
+				machineTimes[machine] = end;
+				makespan = Math.max(makespan, end);
+			}
+			return makespan;
+		}
+	}
+}
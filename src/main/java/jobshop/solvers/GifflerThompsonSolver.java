@@ -0,0 +1,91 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+
+/**
+ * Construction of schedules with the Giffler-Thompson algorithm.
+ *
+ * With a dispatch rule, a single schedule is built. With random priorities, schedules are built until
+ * the deadline and the best one is kept.
+ */
+public class GifflerThompsonSolver implements Solver {
+
+	/** the rules tried to build the initial solution of the local searches */
+	static final DispatchRule[] START_RULES = {
+			DispatchRule.SPT, DispatchRule.LPT, DispatchRule.SRPT, DispatchRule.LRPT };
+
+	//null if the priorities are random
+	private final DispatchRule rule;
+	private final double delay;
+	private final long seed;
+
+	/** Builds a single schedule with the rule, between non-delay (delay 0) and active (delay 1). */
+	public GifflerThompsonSolver(DispatchRule rule, double delay) {
+		this.rule = rule;
+		this.delay = delay;
+		this.seed = 0;
+	}
+
+	/** Builds schedules with random priorities until the deadline, between non-delay (delay 0) and active (delay 1). */
+	public GifflerThompsonSolver(double delay, long seed) {
+		this.rule = null;
+		this.delay = delay;
+		this.seed = seed;
+	}
+
+	@Override
+	public Solver withSeed(long seed) {
+		return rule != null ? this : new GifflerThompsonSolver(delay, seed);
+	}
+
+	@Override
+	public Result solve(Instance instance, long deadline) {
+		if (rule != null) {
+			Schedule schedule = new ActiveScheduleGenerator(instance, rule, delay).generate().toSchedule();
+			Result.ExitCause cause = schedule.makespan() <= instance.lowerBound() ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Blocked;
+			return new Result(instance, schedule, cause);
+		}
+
+		ActiveScheduleGenerator generator = new ActiveScheduleGenerator(instance, DispatchRule.random(new Random(seed)), delay);
+		ResourceOrder best = generator.generate();
+		int bestMakespan = best.toSchedule().makespan();
+		int lowerBound = instance.lowerBound();
+		while (System.currentTimeMillis() < deadline) {
+			if (bestMakespan <= lowerBound) {
+				return new Result(instance, best.toSchedule(), Result.ExitCause.ProvedOptimal);
+			}
+			ResourceOrder order = generator.generate();
+			int makespan = order.toSchedule().makespan();
+			if (makespan < bestMakespan) {
+				best = order;
+				bestMakespan = makespan;
+			}
+		}
+		return new Result(instance, best.toSchedule(), Result.ExitCause.Timeout);
+	}
+
+	/**
+	 * Initial solution of the local searches : the best of the shifting bottleneck schedule and of the non-delay
+	 * schedules built with the usual rules. The non-delay schedules are on average better starts than the active ones.
+	 * The shifting bottleneck only solves its one-machine problems exactly until the deadline of the calling solver.
+	 */
+	static ResourceOrder initialOrder(Instance instance, long deadline) {
+		ResourceOrder best = ShiftingBottleneckSolver.sequence(instance, deadline);
+		int bestMakespan = best.toSchedule().makespan();
+		for (DispatchRule startRule : START_RULES) {
+			ResourceOrder order = new ActiveScheduleGenerator(instance, startRule, 0).generate();
+			int makespan = order.toSchedule().makespan();
+			if (makespan < bestMakespan) {
+				best = order;
+				bestMakespan = makespan;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,113 @@
+package jobshop.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Binary heaps of elements (jobs or machines) that allow to remove any element. Each heap has a fixed capacity
+ * and is stored in a segment of a shared array. An element belongs to at most one of the heaps.
+ *
+ * The elements are ordered by (first[e], second[e], third[e]), the missing criteria being replaced by
+ * the element itself.
+ */
+final class IndexedHeaps {
+
+    private final int capacity;
+    private final int[] elements;
+    private final int[] sizes;
+    // index of each element in its heap (-1 if it is in none of the heaps)
+    private final int[] positions;
+
+    private final int[] first;
+    private final int[] second;
+    private final int[] third;
+
+    IndexedHeaps(int numHeaps, int capacity, int[] first, int[] second, int[] third) {
+        this.capacity = capacity;
+        this.elements = new int[numHeaps * capacity];
+        this.sizes = new int[numHeaps];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        this.first = first;
+        this.second = second;
+        this.third = third;
+    }
+
+    private boolean before(int a, int b) {
+        if(first[a] != first[b])
+            return first[a] < first[b];
+        if(second != null && second[a] != second[b])
+            return second[a] < second[b];
+        return third != null ? third[a] < third[b] : a < b;
+    }
+
+    boolean isEmpty(int heap) {
+        return sizes[heap] == 0;
+    }
+
+    boolean contains(int element) {
+        return positions[element] != -1;
+    }
+
+    int top(int heap) {
+        return elements[heap * capacity];
+    }
+
+    void add(int heap, int element) {
+        int k = sizes[heap]++;
+        elements[heap * capacity + k] = element;
+        positions[element] = k;
+        siftUp(heap, k);
+    }
+
+    void remove(int heap, int element) {
+        int k = positions[element];
+        positions[element] = -1;
+        int last = --sizes[heap];
+        if(k == last)
+            return;
+        elements[heap * capacity + k] = elements[heap * capacity + last];
+        positions[elements[heap * capacity + k]] = k;
+        siftDown(heap, siftUp(heap, k));
+    }
+
+    /** Restores the order of the heap after a change of the criteria of the element. */
+    void update(int heap, int element) {
+        siftDown(heap, siftUp(heap, positions[element]));
+    }
+
+    private int siftUp(int heap, int k) {
+        int base = heap * capacity;
+        int element = elements[base + k];
+        while(k > 0) {
+            int parent = (k - 1) >>> 1;
+            if(!before(element, elements[base + parent]))
+                break;
+            elements[base + k] = elements[base + parent];
+            positions[elements[base + k]] = k;
+            k = parent;
+        }
+        elements[base + k] = element;
+        positions[element] = k;
+        return k;
+    }
+
+    private void siftDown(int heap, int k) {
+        int base = heap * capacity;
+        int size = sizes[heap];
+        int element = elements[base + k];
+        while(true) {
+            int child = 2 * k + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && before(elements[base + child + 1], elements[base + child]))
+                child++;
+            if(!before(elements[base + child], element))
+                break;
+            elements[base + k] = elements[base + child];
+            positions[elements[base + k]] = k;
+            k = child;
+        }
+        elements[base + k] = element;
+        positions[element] = k;
+    }
+}
@@ -0,0 +1,368 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+
+/**
+ * Maintains the heads and tails of every task of a ResourceOrder :
+ *  - the head of a task is its earliest start time (length of the longest path from the source to the task)
+ *  - the tail of a task is the length of the longest path from the end of the task to the end of the schedule
+ *
+ * A swap of two tasks on a machine only changes the heads of the tasks that come after it in the
+ * disjunctive graph (and the tails of the tasks that come before it). This class uses this property to give
+ * the exact makespan of a swap by only recomputing the affected tasks, and to update its state in place
+ * when the swap is accepted, without ever building a Schedule.
+ *
+ * Evaluating a swap does not modify the evaluator : several threads can evaluate swaps concurrently as long
+ * as each one uses its own Workspace and no swap is applied in the meantime.
+ *
+ * Inside this class, tasks are designated by their identifier in the resource order.
+ */
+class MoveEvaluator {
+
+    final Instance instance;
+
+    /** Resource order on which the accepted swaps are applied. */
+    final ResourceOrder order;
+
+    private final int[] heads;
+    private final int[] tails;
+    private int makespan;
+
+    // workspace used by the methods that are not given one
+    private final Workspace workspace;
+
+    // workspace of each thread, for concurrent evaluations
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    MoveEvaluator(ResourceOrder order) {
+        this.instance = order.instance;
+        this.order = order;
+
+        int numTasks = instance.numJobs * instance.numTasks;
+        heads = new int[numTasks];
+        tails = new int[numTasks];
+        workspace = new Workspace();
+
+        reset();
+    }
+
+    /** Recomputes all heads and tails from the resource order (to be called if it was modified externally). */
+    void reset() {
+        Workspace w = workspace;
+        // every task is reachable from the first task of its job (and reaches the last task of its job)
+        for(int j = 0 ; j < instance.numJobs ; j++)
+            w.stack[j] = id(j, 0);
+        if(!w.propagate(instance.numJobs, true))
+            throw new IllegalArgumentException("The resource order contains a cycle");
+        w.commit(heads);
+
+        for(int j = 0 ; j < instance.numJobs ; j++)
+            w.stack[j] = id(j, instance.numTasks - 1);
+        w.propagate(instance.numJobs, false);
+        w.commit(tails);
+
+        updateMakespan();
+    }
+
+    /** Makespan of the current resource order. */
+    int makespan() {
+        return makespan;
+    }
+
+    /** Earliest start time of the given task in the current resource order. */
+    int head(int job, int task) {
+        return heads[id(job, task)];
+    }
+
+    /** Length of the longest path from the end of the given task to the end of the schedule. */
+    int tail(int job, int task) {
+        return tails[id(job, task)];
+    }
+
+    /** Earliest start time of the task of the given identifier. */
+    int head(int op) {
+        return heads[op];
+    }
+
+    /** Length of the longest path from the end of the task of the given identifier to the end of the schedule. */
+    int tail(int op) {
+        return tails[op];
+    }
+
+    /**
+     * Lower bound, in constant time, of the makespan of the resource order obtained by swapping the adjacent tasks
+     * at indices t and t + 1 of machine m. The swap does not change the heads of the predecessors of the two tasks
+     * nor the tails of their successors, from which the longest paths through the two tasks are computed.
+     * This only holds if the swap does not create a cycle, which is the case when the two tasks are consecutive on
+     * a critical path.
+     */
+    int estimateAdjacentSwap(int m, int t) {
+        int u = order.taskIdAt(m, t);
+        int v = order.taskIdAt(m, t + 1);
+        // v now comes first : after the job predecessor of v and the machine predecessor of u
+        int headV = Math.max(end(jobPredecessor(v)), t == 0 ? 0 : end(order.taskIdAt(m, t - 1)));
+        int headU = Math.max(end(jobPredecessor(u)), headV + instance.duration(v));
+        // u now comes last : before the job successor of u and the machine successor of v
+        int tailU = Math.max(start(jobSuccessor(u)), t + 2 == instance.numJobs ? 0 : start(order.taskIdAt(m, t + 2)));
+        int tailV = Math.max(start(jobSuccessor(v)), tailU + instance.duration(u));
+        return Math.max(headV + instance.duration(v) + tailV, headU + instance.duration(u) + tailU);
+    }
+
+    /** Workspace of the calling thread, to evaluate swaps concurrently with other threads. */
+    Workspace localWorkspace() {
+        return workspaces.get();
+    }
+
+    /** Returns the makespan of the resource order obtained by applying the swap, without modifying it. */
+    int evaluate(DescentSolver.Swap swap) {
+        return evaluate(swap.machine, swap.t1, swap.t2, workspace);
+    }
+
+    /** Same as evaluate(swap), using the given workspace. */
+    int evaluate(DescentSolver.Swap swap, Workspace w) {
+        return evaluate(swap.machine, swap.t1, swap.t2, w);
+    }
+
+    /** Returns the makespan of the resource order obtained by swapping the tasks at indices t1 and t2 of
+     * the given machine, or Integer.MAX_VALUE if this resource order is not feasible (cyclic). */
+    int evaluate(int m, int t1, int t2, Workspace w) {
+        if(t1 == t2)
+            return makespan;
+
+        w.setSwap(m, t1, t2);
+        // all tasks whose head may change come after the task that is moved to the first position
+        w.stack[0] = w.operationAt(m, w.swapFirst);
+        boolean acyclic = w.propagate(1, true);
+        w.swapMachine = -1;
+
+        if(!acyclic)
+            return Integer.MAX_VALUE;
+
+        int max = 0;
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            int last = id(j, instance.numTasks - 1);
+            int head = w.mark[last] == w.stamp ? w.values[last] : heads[last];
+            max = Math.max(max, head + instance.duration(last));
+        }
+        return max;
+    }
+
+    /** Applies the swap on the resource order and updates heads and tails accordingly. */
+    void apply(DescentSolver.Swap swap) {
+        apply(swap.machine, swap.t1, swap.t2);
+    }
+
+    /** Swaps the tasks at indices t1 and t2 of the given machine in the resource order, and updates
+     * heads and tails accordingly. */
+    void apply(int m, int t1, int t2) {
+        if(t1 == t2)
+            return;
+
+        Workspace w = workspace;
+        w.setSwap(m, t1, t2);
+        w.stack[0] = w.operationAt(m, w.swapFirst);
+        boolean acyclic = w.propagate(1, true);
+        w.swapMachine = -1;
+        if(!acyclic)
+            throw new IllegalArgumentException("Swapping tasks "+t1+" and "+t2+" of machine "+m+" creates a cycle");
+        w.commit(heads);
+
+        order.swap(m, t1, t2);
+
+        // all tasks whose tail may change come before the task that was moved to the second position
+        w.stack[0] = order.taskIdAt(m, Math.max(t1, t2));
+        w.propagate(1, false);
+        w.commit(tails);
+
+        updateMakespan();
+    }
+
+    /** Builds the schedule of the current resource order from the heads. */
+    Schedule toSchedule() {
+        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            for(int t = 0 ; t < instance.numTasks ; t++) {
+                startTimes[j][t] = heads[id(j, t)];
+            }
+        }
+        return new Schedule(instance, startTimes);
+    }
+
+    private void updateMakespan() {
+        makespan = 0;
+        for(int j = 0 ; j < instance.numJobs ; j++) {
+            int last = id(j, instance.numTasks - 1);
+            makespan = Math.max(makespan, heads[last] + instance.duration(last));
+        }
+    }
+
+    // earliest end of the task, 0 if there is none
+    private int end(int op) {
+        return op == -1 ? 0 : heads[op] + instance.duration(op);
+    }
+
+    // length of the longest path from the start of the task to the end of the schedule, 0 if there is no task
+    private int start(int op) {
+        return op == -1 ? 0 : instance.duration(op) + tails[op];
+    }
+
+    private int id(int job, int task) {
+        return order.taskId(job, task);
+    }
+
+    private int jobPredecessor(int op) {
+        return op % instance.numTasks == 0 ? -1 : op - 1;
+    }
+
+    private int jobSuccessor(int op) {
+        return op % instance.numTasks == instance.numTasks - 1 ? -1 : op + 1;
+    }
+
+    /** Scratch buffers used to evaluate a swap. */
+    final class Workspace {
+
+        // swap that is currently being evaluated (swapMachine = -1 if none)
+        private int swapMachine = -1;
+        private int swapFirst;
+        private int swapSecond;
+
+        private final int[] values;
+        private final int[] mark;
+        private int stamp = 0;
+        private final int[] inDegree;
+        private final int[] stack;
+        private final int[] region;
+        private int regionSize;
+
+        private Workspace() {
+            int numTasks = instance.numJobs * instance.numTasks;
+            values = new int[numTasks];
+            mark = new int[numTasks];
+            inDegree = new int[numTasks];
+            stack = new int[numTasks];
+            region = new int[numTasks];
+        }
+
+        /**
+         * Computes the heads (forward) or the tails (backward) of all tasks reachable from the `numSources` tasks
+         * placed on the stack, in the graph where the swap currently evaluated is applied.
+         * The new values are stored in `values` and the tasks concerned are listed in `region` in topological order.
+         * Returns false if the region contains a cycle.
+         */
+        private boolean propagate(int numSources, boolean forward) {
+            stamp++;
+            for(int k = 0 ; k < numSources ; k++)
+                mark[stack[k]] = stamp;
+
+            // collect the tasks reachable from the sources
+            int top = numSources;
+            int size = 0;
+            while(top > 0) {
+                int op = stack[--top];
+                region[size++] = op;
+                inDegree[op] = 0;
+                int next = forward ? jobSuccessor(op) : jobPredecessor(op);
+                if(next != -1 && mark[next] != stamp) {
+                    mark[next] = stamp;
+                    stack[top++] = next;
+                }
+                next = forward ? machineSuccessor(op) : machinePredecessor(op);
+                if(next != -1 && mark[next] != stamp) {
+                    mark[next] = stamp;
+                    stack[top++] = next;
+                }
+            }
+
+            // number of predecessors of each task inside the region
+            for(int k = 0 ; k < size ; k++) {
+                int op = region[k];
+                int next = forward ? jobSuccessor(op) : jobPredecessor(op);
+                if(next != -1)
+                    inDegree[next]++;
+                next = forward ? machineSuccessor(op) : machinePredecessor(op);
+                if(next != -1)
+                    inDegree[next]++;
+            }
+
+            // the sources are the only tasks without predecessors in the region, unless there is a cycle
+            int done = 0;
+            int queued = 0;
+            for(int k = 0 ; k < size ; k++) {
+                if(inDegree[region[k]] == 0)
+                    stack[queued++] = region[k];
+            }
+            int[] base = forward ? heads : tails;
+            while(done < queued) {
+                int op = stack[done++];
+
+                int value = 0;
+                int prev = forward ? jobPredecessor(op) : jobSuccessor(op);
+                if(prev != -1)
+                    value = Math.max(value, (mark[prev] == stamp ? values[prev] : base[prev]) + instance.duration(prev));
+                prev = forward ? machinePredecessor(op) : machineSuccessor(op);
+                if(prev != -1)
+                    value = Math.max(value, (mark[prev] == stamp ? values[prev] : base[prev]) + instance.duration(prev));
+                values[op] = value;
+
+                int next = forward ? jobSuccessor(op) : jobPredecessor(op);
+                if(next != -1 && --inDegree[next] == 0)
+                    stack[queued++] = next;
+                next = forward ? machineSuccessor(op) : machinePredecessor(op);
+                if(next != -1 && --inDegree[next] == 0)
+                    stack[queued++] = next;
+            }
+
+            System.arraycopy(stack, 0, region, 0, done);
+            regionSize = done;
+            return done == size;
+        }
+
+        /** Copies the values computed by the last propagation into the given array. */
+        private void commit(int[] target) {
+            for(int k = 0 ; k < regionSize ; k++) {
+                target[region[k]] = values[region[k]];
+            }
+        }
+
+        private void setSwap(int m, int t1, int t2) {
+            swapMachine = m;
+            swapFirst = Math.min(t1, t2);
+            swapSecond = Math.max(t1, t2);
+        }
+
+        /** Task at position k on machine m, taking into account the swap being evaluated. */
+        private int operationAt(int m, int k) {
+            if(m == swapMachine) {
+                if(k == swapFirst)
+                    return order.taskIdAt(m, swapSecond);
+                if(k == swapSecond)
+                    return order.taskIdAt(m, swapFirst);
+            }
+            return order.taskIdAt(m, k);
+        }
+
+        /** Position of the task on its machine, taking into account the swap being evaluated. */
+        private int position(int op) {
+            int k = order.position(op);
+            if(instance.machine(op) == swapMachine) {
+                if(k == swapFirst)
+                    return swapSecond;
+                if(k == swapSecond)
+                    return swapFirst;
+            }
+            return k;
+        }
+
+        private int machinePredecessor(int op) {
+            int k = position(op);
+            return k == 0 ? -1 : operationAt(instance.machine(op), k - 1);
+        }
+
+        private int machineSuccessor(int op) {
+            int k = position(op);
+            return k == instance.numJobs - 1 ? -1 : operationAt(instance.machine(op), k + 1);
+        }
+    }
+}
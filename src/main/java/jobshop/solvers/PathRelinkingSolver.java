@@ -0,0 +1,249 @@
+package jobshop.solvers;
+
+import jobshop.Checkpoint;
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Path relinking between the solutions of a diverse elite set, each solution being polished by a short tabu search.
+ *
+ * The elite set is first filled with the polished best greedy solution and polished random non-delay schedules.
+ * Then, until the deadline, a path is walked from an elite solution to another one : at each step, one of the
+ * machines gets one more task at the same position as in the guiding solution, by swapping it with the task that
+ * holds this position. The step whose resource order has the smallest makespan is taken, each one being evaluated
+ * incrementally by the MoveEvaluator. The best solution in the middle of the path is polished and offered to the
+ * elite set.
+ *
+ * The distance between two solutions is the number of pairs of tasks that a machine executes in a different order.
+ * A solution enters the elite set if it is better than the worst one and not too close to the others, or if it is
+ * better than the closest one, which it then replaces, so that the set does not collapse around the best solution.
+ */
+public class PathRelinkingSolver extends TabooSolver {
+
+	/** number of solutions of the elite set */
+	static final int ELITE_SIZE = 10;
+
+	/** number of iterations of the tabu search polishing a solution */
+	static final int POLISH_ITERATIONS = 1000;
+
+	/** minimum distance between two elite solutions, as a fraction of the number of pairs of tasks of the machines */
+	static final double MIN_DISTANCE = 0.01;
+
+	private final long seed;
+
+	public PathRelinkingSolver() {
+		this(0);
+	}
+
+	public PathRelinkingSolver(long seed) {
+		super(1, POLISH_ITERATIONS);
+		this.seed = seed;
+	}
+
+	@Override
+	public Solver withSeed(long seed) {
+		return new PathRelinkingSolver(seed);
+	}
+
+	@Override
+	Result solveFrom(ResourceOrder initOrder, long deadline, Checkpoint checkpoint) {
+		Instance instance = initOrder.instance;
+		Random random = new Random(seed);
+		int pairs = instance.numMachines * instance.numJobs * (instance.numJobs - 1) / 2;
+		EliteSet elites = new EliteSet(ELITE_SIZE, Math.max(1, (int) (MIN_DISTANCE * pairs)));
+
+		//elite set : the best greedy solution and random non-delay schedules, polished
+		Schedule best = polish(initOrder, deadline, checkpoint, elites);
+		ActiveScheduleGenerator generator = new ActiveScheduleGenerator(instance, DispatchRule.random(random), 0);
+		for (int k = 1; k < ELITE_SIZE && System.currentTimeMillis() < deadline && best.makespan() > instance.lowerBound(); k++) {
+			Schedule schedule = polish(generator.generate(), deadline, checkpoint, elites);
+			if (schedule.makespan() < best.makespan()) {
+				best = schedule;
+			}
+		}
+
+		//relinking of random pairs of elite solutions
+		while (System.currentTimeMillis() < deadline && best.makespan() > instance.lowerBound() && elites.size() > 1) {
+			int first = random.nextInt(elites.size());
+			int second = random.nextInt(elites.size() - 1);
+			if (second >= first) {
+				second++;
+			}
+			ResourceOrder middle = relink(elites.get(first), elites.get(second), deadline);
+			if (middle == null) {
+				continue;
+			}
+			Schedule schedule = polish(middle, deadline, checkpoint, elites);
+			if (schedule.makespan() < best.makespan()) {
+				best = schedule;
+			}
+		}
+
+		Result.ExitCause cause = best.makespan() <= instance.lowerBound() ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+		return new Result(instance, best, cause);
+	}
+
+	/** Short tabu search from the order, which is modified, offering its result to the elite set. */
+	private Schedule polish(ResourceOrder order, long deadline, Checkpoint checkpoint, EliteSet elites) {
+		MoveEvaluator evaluator = new MoveEvaluator(order);
+		Schedule schedule = search(evaluator, deadline, baseTenure(order.instance), checkpoint).schedule;
+		elites.offer(new ResourceOrder(schedule), schedule.makespan());
+		return schedule;
+	}
+
+	/**
+	 * Walks from the initiating order to the guiding one, fixing one position of a machine at each step.
+	 * @return the best order strictly inside the path, or null if there is none
+	 */
+	static ResourceOrder relink(ResourceOrder initiating, ResourceOrder guiding, long deadline) {
+		Instance instance = initiating.instance;
+		MoveEvaluator evaluator = new MoveEvaluator(initiating.copy());
+		MoveEvaluator.Workspace workspace = evaluator.localWorkspace();
+		ResourceOrder order = evaluator.order;
+
+		//first position of each machine where the orders differ
+		int[] firstDifference = new int[instance.numMachines];
+		int remaining = 0;
+		for (int machine = 0; machine < instance.numMachines; machine++) {
+			remaining += advance(order, guiding, machine, firstDifference) < instance.numJobs ? 1 : 0;
+		}
+
+		ResourceOrder bestMiddle = null;
+		int bestMakespan = Integer.MAX_VALUE;
+		while (remaining > 0 && System.currentTimeMillis() < deadline) {
+			//the feasible step of smallest makespan
+			int bestMachine = -1;
+			int bestStep = Integer.MAX_VALUE;
+			for (int machine = 0; machine < instance.numMachines; machine++) {
+				int index = firstDifference[machine];
+				if (index == instance.numJobs) {
+					continue;
+				}
+				int other = order.position(guiding.taskIdAt(machine, index));
+				int makespan = evaluator.evaluate(machine, index, other, workspace);
+				if (makespan < bestStep) {
+					bestStep = makespan;
+					bestMachine = machine;
+				}
+			}
+			if (bestMachine == -1) {
+				//every step creates a cycle
+				break;
+			}
+
+			int index = firstDifference[bestMachine];
+			evaluator.apply(bestMachine, index, order.position(guiding.taskIdAt(bestMachine, index)));
+			if (advance(order, guiding, bestMachine, firstDifference) == instance.numJobs) {
+				remaining--;
+			}
+			//the guiding order itself is not in the middle of the path
+			if (remaining > 0 && evaluator.makespan() < bestMakespan) {
+				bestMakespan = evaluator.makespan();
+				if (bestMiddle == null) {
+					bestMiddle = order.copy();
+				}
+				else {
+					bestMiddle.copyFrom(order);
+				}
+			}
+		}
+		return bestMiddle;
+	}
+
+	/** Moves the first difference of the machine past the positions where the orders agree, and returns it. */
+	private static int advance(ResourceOrder order, ResourceOrder guiding, int machine, int[] firstDifference) {
+		int index = firstDifference[machine];
+		while (index < order.instance.numJobs && order.taskIdAt(machine, index) == guiding.taskIdAt(machine, index)) {
+			index++;
+		}
+		return firstDifference[machine] = index;
+	}
+
+	/** Number of pairs of tasks of a machine executed in a different order by the two resource orders. */
+	static int distance(ResourceOrder a, ResourceOrder b) {
+		Instance instance = a.instance;
+		int distance = 0;
+		for (int machine = 0; machine < instance.numMachines; machine++) {
+			for (int i = 0; i < instance.numJobs; i++) {
+				int position = b.position(a.taskIdAt(machine, i));
+				for (int j = i + 1; j < instance.numJobs; j++) {
+					if (b.position(a.taskIdAt(machine, j)) < position) {
+						distance++;
+					}
+				}
+			}
+		}
+		return distance;
+	}
+
+	/** Best solutions found, at least minDistance apart from each other. */
+	static final class EliteSet {
+		final int capacity;
+		final int minDistance;
+		final List<ResourceOrder> orders = new ArrayList<>();
+		final List<Integer> makespans = new ArrayList<>();
+
+		EliteSet(int capacity, int minDistance) {
+			this.capacity = capacity;
+			this.minDistance = minDistance;
+		}
+
+		int size() {
+			return orders.size();
+		}
+
+		ResourceOrder get(int k) {
+			return orders.get(k);
+		}
+
+		/**
+		 * Adds a copy of the order, replacing the closest solution if it is too close to it and better, or else the
+		 * worst solution if the set is full and it is better.
+		 * @return true if the order was added
+		 */
+		boolean offer(ResourceOrder order, int makespan) {
+			int closest = -1;
+			int closestDistance = Integer.MAX_VALUE;
+			int worst = -1;
+			for (int k = 0; k < orders.size(); k++) {
+				int distance = distance(order, orders.get(k));
+				if (distance < closestDistance) {
+					closestDistance = distance;
+					closest = k;
+				}
+				if (worst == -1 || makespans.get(k) > makespans.get(worst)) {
+					worst = k;
+				}
+			}
+
+			int replaced;
+			if (closestDistance < minDistance) {
+				if (makespan >= makespans.get(closest)) {
+					return false;
+				}
+				replaced = closest;
+			}
+			else if (orders.size() < capacity) {
+				replaced = orders.size();
+				orders.add(null);
+				makespans.add(null);
+			}
+			else if (makespan < makespans.get(worst)) {
+				replaced = worst;
+			}
+			else {
+				return false;
+			}
+			orders.set(replaced, order.copy());
+			makespans.set(replaced, makespan);
+			return true;
+		}
+	}
+}
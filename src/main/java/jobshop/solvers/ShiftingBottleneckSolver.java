@@ -0,0 +1,327 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Arrays;
+
+/**
+ * Shifting bottleneck heuristic (Adams, Balas and Zawack).
+ *
+ * The machines are sequenced one at a time. In the disjunctive graph of the jobs and of the machines already
+ * sequenced, each task has a head (longest path before it) and a tail (longest path after it). Each remaining machine
+ * is then a one-machine problem with heads and tails, solved by Carlier's algorithm : the bottleneck is the machine
+ * whose problem has the largest makespan, and it is sequenced next. After each insertion, the machines sequenced before
+ * are re-optimized one by one : a machine is removed from the graph, and sequenced again with the heads and tails of
+ * the other machines if this does not increase the makespan.
+ *
+ * Sequencing a machine with the optimal one-machine sequence may close a cycle with the paths through the other
+ * machines : the machine is then sequenced by increasing head, which follows these paths.
+ */
+public class ShiftingBottleneckSolver implements Solver {
+
+	/** maximum number of nodes of Carlier's algorithm for a one-machine problem */
+	static final int CARLIER_NODES = 1000;
+
+	/** number of passes of re-optimization over the machines already sequenced, after each insertion */
+	static final int REOPTIMIZATION_PASSES = 2;
+
+	@Override
+	public Result solve(Instance instance, long deadline) {
+		Schedule schedule = sequence(instance, deadline).toSchedule();
+		Result.ExitCause cause = schedule.makespan() <= instance.lowerBound() ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Blocked;
+		return new Result(instance, schedule, cause);
+	}
+
+	/**
+	 * Sequences all the machines. Once the deadline is reached, the remaining one-machine problems are only solved by
+	 * the Schrage heuristic, and the machines are no longer re-optimized.
+	 */
+	static ResourceOrder sequence(Instance instance, long deadline) {
+		Graph graph = new Graph(instance);
+		Carlier carlier = new Carlier(instance.numJobs, CARLIER_NODES);
+		Carlier schrage = new Carlier(instance.numJobs, 1);
+
+		//machines in the order they were sequenced
+		int[] sequenced = new int[instance.numMachines];
+		for (int count = 0; count < instance.numMachines; count++) {
+			graph.computeHeadsAndTails();
+
+			//bottleneck : the remaining machine whose one-machine problem has the largest makespan
+			int bottleneck = -1;
+			int bottleneckMakespan = -1;
+			for (int machine = 0; machine < instance.numMachines; machine++) {
+				if (graph.isSequenced(machine)) {
+					continue;
+				}
+				int makespan = graph.solve(machine, System.currentTimeMillis() < deadline ? carlier : schrage);
+				if (makespan > bottleneckMakespan) {
+					bottleneck = machine;
+					bottleneckMakespan = makespan;
+				}
+			}
+			graph.solve(bottleneck, System.currentTimeMillis() < deadline ? carlier : schrage);
+			graph.insert(bottleneck, graph.sequence, graph.tasks);
+			sequenced[count] = bottleneck;
+
+			//re-optimization of the machines sequenced before
+			for (int pass = 0; pass < REOPTIMIZATION_PASSES && count > 0 && System.currentTimeMillis() < deadline; pass++) {
+				boolean improved = false;
+				for (int k = 0; k < count && System.currentTimeMillis() < deadline; k++) {
+					improved |= graph.reoptimize(sequenced[k], carlier);
+				}
+				if (!improved) {
+					break;
+				}
+			}
+		}
+		return graph.toResourceOrder();
+	}
+
+	/** Disjunctive graph of the jobs and of the sequenced machines, with the heads and tails of the tasks. */
+	private static final class Graph {
+		final Instance instance;
+		final int numOperations;
+
+		// task before and after each task on its machine, -1 if none or if the machine is not sequenced
+		final int[] machinePredecessors;
+		final int[] machineSuccessors;
+		final boolean[] sequencedMachines;
+
+		// longest paths before and after each task, and position of each task in a topological order
+		final int[] heads;
+		final int[] tails;
+		final int[] ranks;
+		final int[] topological;
+		final int[] inDegrees;
+
+		// tasks of the machine being solved, with their heads, durations and tails, and the sequence found
+		final int[] tasks;
+		final int[] machineHeads;
+		final int[] machineDurations;
+		final int[] machineTails;
+		final int[] sequence;
+		final int[] savedTasks;
+		final long[] keys;
+		int size;
+
+		Graph(Instance instance) {
+			this.instance = instance;
+			this.numOperations = instance.numJobs * instance.numTasks;
+			machinePredecessors = new int[numOperations];
+			machineSuccessors = new int[numOperations];
+			Arrays.fill(machinePredecessors, -1);
+			Arrays.fill(machineSuccessors, -1);
+			sequencedMachines = new boolean[instance.numMachines];
+			heads = new int[numOperations];
+			tails = new int[numOperations];
+			ranks = new int[numOperations];
+			topological = new int[numOperations];
+			inDegrees = new int[numOperations];
+			tasks = new int[instance.numJobs];
+			machineHeads = new int[instance.numJobs];
+			machineDurations = new int[instance.numJobs];
+			machineTails = new int[instance.numJobs];
+			sequence = new int[instance.numJobs];
+			savedTasks = new int[instance.numJobs];
+			keys = new long[instance.numJobs];
+		}
+
+		boolean isSequenced(int machine) {
+			return sequencedMachines[machine];
+		}
+
+		/**
+		 * Computes the heads and tails of all the tasks by longest paths in topological order.
+		 * @return false if the graph has a cycle
+		 */
+		boolean computeHeadsAndTails() {
+			int queued = 0;
+			for (int id = 0; id < numOperations; id++) {
+				inDegrees[id] = (id % instance.numTasks == 0 ? 0 : 1) + (machinePredecessors[id] == -1 ? 0 : 1);
+				if (inDegrees[id] == 0) {
+					topological[queued++] = id;
+				}
+			}
+			for (int done = 0; done < queued; done++) {
+				int id = topological[done];
+				ranks[id] = done;
+				int head = 0;
+				if (id % instance.numTasks != 0) {
+					head = heads[id - 1] + instance.duration(id - 1);
+				}
+				if (machinePredecessors[id] != -1) {
+					head = Math.max(head, heads[machinePredecessors[id]] + instance.duration(machinePredecessors[id]));
+				}
+				heads[id] = head;
+				if (id % instance.numTasks != instance.numTasks - 1 && --inDegrees[id + 1] == 0) {
+					topological[queued++] = id + 1;
+				}
+				if (machineSuccessors[id] != -1 && --inDegrees[machineSuccessors[id]] == 0) {
+					topological[queued++] = machineSuccessors[id];
+				}
+			}
+			if (queued < numOperations) {
+				return false;
+			}
+			for (int k = numOperations - 1; k >= 0; k--) {
+				int id = topological[k];
+				int tail = 0;
+				if (id % instance.numTasks != instance.numTasks - 1) {
+					tail = instance.duration(id + 1) + tails[id + 1];
+				}
+				if (machineSuccessors[id] != -1) {
+					tail = Math.max(tail, instance.duration(machineSuccessors[id]) + tails[machineSuccessors[id]]);
+				}
+				tails[id] = tail;
+			}
+			return true;
+		}
+
+		/** Makespan of the graph, from the heads computed last. */
+		int makespan() {
+			int makespan = 0;
+			for (int job = 0; job < instance.numJobs; job++) {
+				int last = instance.taskId(job, instance.numTasks - 1);
+				makespan = Math.max(makespan, heads[last] + instance.duration(last));
+			}
+			return makespan;
+		}
+
+		/**
+		 * Solves the one-machine problem of the machine with the heads and tails computed last : the tasks of the machine
+		 * are listed in tasks, and their order in sequence (as indices in tasks).
+		 * @return the makespan of the sequence
+		 */
+		int solve(int machine, Carlier carlier) {
+			size = 0;
+			for (int job = 0; job < instance.numJobs; job++) {
+				if (!instance.usesMachine(job, machine)) {
+					continue;
+				}
+				int id = instance.taskId(job, instance.task_with_machine(job, machine));
+				tasks[size] = id;
+				machineHeads[size] = heads[id];
+				machineDurations[size] = instance.duration(id);
+				machineTails[size] = tails[id];
+				size++;
+			}
+			return carlier.solve(size, machineHeads, machineDurations, machineTails, sequence);
+		}
+
+		/**
+		 * Sequences the machine in the given order of its tasks (indices in tasks), or by increasing head and
+		 * topological rank if this order closes a cycle.
+		 */
+		void insert(int machine, int[] order, int[] machineTasks) {
+			link(machine, order, machineTasks);
+			if (computeHeadsAndTails()) {
+				return;
+			}
+			//heads and ranks of the graph without the machine, which increase along its paths
+			unlink(machine);
+			computeHeadsAndTails();
+			for (int k = 0; k < size; k++) {
+				keys[k] = ((long) heads[machineTasks[k]] << 32) | ranks[machineTasks[k]];
+			}
+			Arrays.sort(keys, 0, size);
+			for (int k = 0; k < size; k++) {
+				order[k] = indexOf(topological[(int) keys[k]], machineTasks);
+			}
+			link(machine, order, machineTasks);
+			computeHeadsAndTails();
+		}
+
+		/**
+		 * Removes the machine from the graph and sequences it again with the heads and tails of the other machines,
+		 * unless this increases the makespan.
+		 * @return true if the makespan decreased
+		 */
+		boolean reoptimize(int machine, Carlier carlier) {
+			computeHeadsAndTails();
+			int before = makespan();
+			//current sequence of the machine, from its first task
+			int first = -1;
+			for (int job = 0; job < instance.numJobs && first == -1; job++) {
+				if (instance.usesMachine(job, machine)) {
+					int id = instance.taskId(job, instance.task_with_machine(job, machine));
+					while (machinePredecessors[id] != -1) {
+						id = machinePredecessors[id];
+					}
+					first = id;
+				}
+			}
+			int count = 0;
+			for (int id = first; id != -1; id = machineSuccessors[id]) {
+				savedTasks[count++] = id;
+			}
+
+			unlink(machine);
+			computeHeadsAndTails();
+			solve(machine, carlier);
+			insert(machine, sequence, tasks);
+			if (makespan() <= before) {
+				return makespan() < before;
+			}
+			//the new sequence is worse : restore the previous one
+			unlink(machine);
+			for (int k = 0; k + 1 < count; k++) {
+				machineSuccessors[savedTasks[k]] = savedTasks[k + 1];
+				machinePredecessors[savedTasks[k + 1]] = savedTasks[k];
+			}
+			sequencedMachines[machine] = true;
+			return false;
+		}
+
+		private int indexOf(int id, int[] machineTasks) {
+			for (int k = 0; k < size; k++) {
+				if (machineTasks[k] == id) {
+					return k;
+				}
+			}
+			throw new IllegalStateException("Task " + id + " is not on the machine");
+		}
+
+		private void link(int machine, int[] order, int[] machineTasks) {
+			for (int k = 0; k + 1 < size; k++) {
+				machineSuccessors[machineTasks[order[k]]] = machineTasks[order[k + 1]];
+				machinePredecessors[machineTasks[order[k + 1]]] = machineTasks[order[k]];
+			}
+			sequencedMachines[machine] = true;
+		}
+
+		private void unlink(int machine) {
+			for (int job = 0; job < instance.numJobs; job++) {
+				if (instance.usesMachine(job, machine)) {
+					int id = instance.taskId(job, instance.task_with_machine(job, machine));
+					machinePredecessors[id] = -1;
+					machineSuccessors[id] = -1;
+				}
+			}
+			sequencedMachines[machine] = false;
+		}
+
+		/** Resource order of the sequences of the machines, which must all be sequenced. */
+		ResourceOrder toResourceOrder() {
+			ResourceOrder order = new ResourceOrder(instance);
+			for (int machine = 0; machine < instance.numMachines; machine++) {
+				for (int job = 0; job < instance.numJobs; job++) {
+					if (!instance.usesMachine(job, machine)) {
+						continue;
+					}
+					int id = instance.taskId(job, instance.task_with_machine(job, machine));
+					if (machinePredecessors[id] != -1) {
+						continue;
+					}
+					for (; id != -1; id = machineSuccessors[id]) {
+						order.addTask(machine, id / instance.numTasks, id % instance.numTasks);
+					}
+				}
+			}
+			return order;
+		}
+	}
+}
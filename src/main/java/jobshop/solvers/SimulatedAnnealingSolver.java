@@ -0,0 +1,148 @@
+package jobshop.solvers;
+
+import jobshop.Checkpoint;
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+
+/**
+ * Simulated annealing on the swaps of two adjacent tasks of the critical path (van Laarhoven, Aarts and Lenstra),
+ * starting from the best greedy solution.
+ *
+ * A random move worsening the makespan by delta is accepted with probability exp(-delta / T). The temperature T
+ * decreases geometrically with the elapsed time, from T0 to Tf, both derived from the mean duration of the tasks :
+ * at T0, a move worsening the makespan by a mean duration is accepted half of the time, at Tf, a move worsening it
+ * by a tenth of a mean duration is accepted once in a hundred times.
+ *
+ * As the acceptance threshold is drawn before the move is evaluated, most moves are rejected from the constant time
+ * estimate of MoveEvaluator.estimateAdjacentSwap(), which is a lower bound of their makespan. Only the other ones are
+ * evaluated exactly, and the heads and tails are updated in place when a move is accepted.
+ */
+public class SimulatedAnnealingSolver extends DescentSolver {
+
+	/** probability to accept a move worsening the makespan by a mean duration, at the initial temperature */
+	static final double INITIAL_ACCEPTANCE = 0.5;
+
+	/** probability to accept a move worsening the makespan by a tenth of a mean duration, at the final temperature */
+	static final double FINAL_ACCEPTANCE = 0.01;
+
+	/** number of moves between two updates of the temperature */
+	static final int TEMPERATURE_UPDATE = 1 << 10;
+
+	private final long seed;
+
+	public SimulatedAnnealingSolver() {
+		this(0);
+	}
+
+	public SimulatedAnnealingSolver(long seed) {
+		super(false, seed);
+		this.seed = seed;
+	}
+
+	@Override
+	public Solver withSeed(long seed) {
+		return new SimulatedAnnealingSolver(seed);
+	}
+
+	@Override
+	Result solveFrom(ResourceOrder initOrder, long deadline, Checkpoint checkpoint) {
+		Instance instance = initOrder.instance;
+		MoveEvaluator evaluator = new MoveEvaluator(initOrder);
+		MoveEvaluator.Workspace workspace = evaluator.localWorkspace();
+		Random random = new Random(seed);
+
+		ResourceOrder bestOrder = initOrder.copy();
+		int bestMakespan = evaluator.makespan();
+		int lowerBound = instance.lowerBound();
+
+		//temperatures from the mean duration of the tasks
+		double meanDuration = 0;
+		for (int job = 0; job < instance.numJobs; job++) {
+			meanDuration += instance.jobLoad(job);
+		}
+		meanDuration /= instance.numJobs * instance.numTasks;
+		double initialTemperature = meanDuration / -Math.log(INITIAL_ACCEPTANCE);
+		double finalTemperature = meanDuration / 10 / -Math.log(FINAL_ACCEPTANCE);
+		double temperature = initialTemperature;
+
+		//adjacent tasks of the critical path, encoded as machine * numJobs + index of the first one
+		int[] moves = new int[instance.numJobs * instance.numTasks];
+		int numMoves = criticalMoves(evaluator, moves);
+
+		long start = System.currentTimeMillis();
+		Result.ExitCause cause = Result.ExitCause.Timeout;
+		for (long iter = 0; ; iter++) {
+			if (bestMakespan <= lowerBound) {
+				cause = Result.ExitCause.ProvedOptimal;
+				break;
+			}
+			if (numMoves == 0) {
+				//the critical path only follows a job, whose load is not above the lower bound
+				cause = Result.ExitCause.Blocked;
+				break;
+			}
+			if ((iter & (TEMPERATURE_UPDATE - 1)) == 0) {
+				long now = System.currentTimeMillis();
+				if (now >= deadline || Thread.currentThread().isInterrupted()) {
+					break;
+				}
+				double progress = (double) (now - start) / Math.max(1, deadline - start);
+				temperature = initialTemperature * Math.pow(finalTemperature / initialTemperature, progress);
+			}
+
+			//largest makespan accepted for this move, drawn before evaluating it
+			double threshold = evaluator.makespan() - temperature * Math.log(1 - random.nextDouble());
+			int move = moves[random.nextInt(numMoves)];
+			int machine = move / instance.numJobs;
+			int index = move % instance.numJobs;
+			if (evaluator.estimateAdjacentSwap(machine, index) > threshold) {
+				continue;
+			}
+			if (evaluator.evaluate(machine, index, index + 1, workspace) > threshold) {
+				continue;
+			}
+
+			evaluator.apply(machine, index, index + 1);
+			numMoves = criticalMoves(evaluator, moves);
+			if (evaluator.makespan() < bestMakespan) {
+				bestMakespan = evaluator.makespan();
+				bestOrder.copyFrom(evaluator.order);
+				if (checkpoint != null) {
+					checkpoint.offer(bestOrder, bestMakespan);
+				}
+			}
+		}
+
+		return new Result(instance, bestOrder.toSchedule(), cause);
+	}
+
+	/**
+	 * Lists the pairs of adjacent tasks of a machine that are consecutive on a critical path : both tasks are critical
+	 * and the second one starts at the end of the first one. Swapping them cannot create a cycle.
+	 * @return the number of pairs
+	 */
+	static int criticalMoves(MoveEvaluator evaluator, int[] moves) {
+		Instance instance = evaluator.instance;
+		ResourceOrder order = evaluator.order;
+		int makespan = evaluator.makespan();
+		int count = 0;
+		for (int machine = 0; machine < instance.numMachines; machine++) {
+			int first = order.taskIdAt(machine, 0);
+			for (int index = 0; index + 1 < instance.numJobs; index++) {
+				int second = order.taskIdAt(machine, index + 1);
+				int end = evaluator.head(first) + instance.duration(first);
+				if (end == evaluator.head(second)
+						&& end + evaluator.tail(first) == makespan
+						&& end + instance.duration(second) + evaluator.tail(second) == makespan) {
+					moves[count++] = machine * instance.numJobs + index;
+				}
+				first = second;
+			}
+		}
+		return count;
+	}
+}
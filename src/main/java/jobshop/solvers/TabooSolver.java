@@ -1,98 +1,236 @@
 package jobshop.solvers;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import jobshop.Checkpoint;
 import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Schedule;
+import jobshop.Solver;
 import jobshop.encodings.ResourceOrder;
-import jobshop.solvers.GloutonSolver;
 
-import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * Tabu search on the Nowicki and Smutnicki neighborhood.
+ *
+ * The neighbors of an iteration are evaluated concurrently on a fork-join pool, each worker using its own
+ * workspace of the MoveEvaluator. The best neighbor is then chosen sequentially, ties being broken by the
+ * order in which the neighbors are generated, so the search does not depend on the number of threads.
+ */
 public class TabooSolver extends DescentSolver {
-	
+
+	/** number of iterations without improvement after which the tenure is increased by one */
+	static final int STAGNATION_STEP = 100;
+
+	/** minimum number of neighbors evaluated by a single task of the pool */
+	static final int MIN_EVALUATIONS_PER_TASK = 4;
+
+	//null if the neighbors are evaluated sequentially
+	private final ForkJoinPool pool;
+
+	/** number max of iterations */
+	private final int maxIterations;
+
+	/** Tabu search using all the available cores, until the deadline. */
+	public TabooSolver() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/** Tabu search evaluating the neighbors with the given number of threads, until the deadline. */
+	public TabooSolver(int threads) {
+		this(threads, Integer.MAX_VALUE);
+	}
+
+	/** Tabu search evaluating the neighbors with the given number of threads, stopped after maxIterations. */
+	public TabooSolver(int threads, int maxIterations) {
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+		this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		this.maxIterations = maxIterations;
+	}
+
+	/** The tabu search makes no random choice. */
+	@Override
+	public Solver withSeed(long seed) {
+		return this;
+	}
+
 	@Override
-	public Result solve (Instance instance, long deadline) {
+	Result solveFrom(ResourceOrder initOrder, long deadline, Checkpoint checkpoint) {
 		
-		//determine the initial order using Glouton()
-    	GloutonSolver gloutonSol = new GloutonSolver("SPT");
-    	Result gloutonResult = gloutonSol.solve(instance, deadline);
-    	Schedule initSchedule = gloutonResult.schedule;
-    	ResourceOrder initOrder = new ResourceOrder(initSchedule);
-    	
-    	//create and initialise taboo matrix
-    	int[][] tabouMatrix = new int[instance.numJobs*instance.numTasks][instance.numJobs*instance.numTasks];
-		for (int k = 0; k < (instance.numJobs * instance.numTasks); k++) {
-			Arrays.fill(tabouMatrix[k], 0);
-		}
+    	//heads and tails of the current order, used to evaluate the neighbors without building their schedule
+    	MoveEvaluator evaluator = new MoveEvaluator(initOrder);
     	
+    	return search(evaluator, deadline, baseTenure(initOrder.instance), checkpoint);
+	}
+
+	/**
+	 * Tabu search from the order of the evaluator, which is modified in place.
+	 * @param baseTenure tenure of the moves when the search improves
+	 * @param checkpoint records the improvements of the search, if not null
+	 * @return the best solution found
+	 */
+	Result search(MoveEvaluator evaluator, long deadline, int baseTenure, Checkpoint checkpoint) {
+		Instance instance = evaluator.instance;
+		
     	//initialise
-    	int minMakespan = initSchedule.makespan(); //best solution
-    	ResourceOrder bestOrder = initOrder;
-    	int currentMakespan = initSchedule.makespan(); //current solution
-    	ResourceOrder currentOrder = initOrder; //current solution
+    	int minMakespan = evaluator.makespan(); //best solution
+    	Schedule bestSchedule = evaluator.toSchedule();
+    	int lowerBound = instance.lowerBound();
     	int iter = 0; //number of iteration
-    	int iterLimit = 3000; //number max of iteration
-    	int tabooTime = 5; //time when the neighbour will be ignored
+    	int stagnation = 0; //number of iterations since the last improvement
+    	int maxTenure = 2 * baseTenure;
+    	TabuList tabuList = new TabuList(maxTenure);
     	
     	//main loop
-    	while ((iter < iterLimit) && (deadline - System.currentTimeMillis() > 1)) { //while we have a better solution
+    	Result.ExitCause cause = Result.ExitCause.Timeout;
+    	while (System.currentTimeMillis() < deadline && !Thread.currentThread().isInterrupted()) {
+    		if (minMakespan <= lowerBound) {
+    			cause = Result.ExitCause.ProvedOptimal;
+    			break;
+    		}
+    		if (iter >= maxIterations) {
+    			cause = Result.ExitCause.Blocked;
+    			break;
+    		}
     		iter++;
-    		//searching for the best neighbour
-    		int bestNeighbourMakespan = Integer.MAX_VALUE;
-    		int bestIndex1 = -1;
-    		int bestIndex2 = -1;
-    		List<Block> blocks = blocksOfCriticalPath(currentOrder);
+    		//all neighbours are evaluated, as a taboo neighbour is accepted if it improves the best solution
+    		List<Swap> candidates = new ArrayList<>();
+    		List<Block> blocks = blocksOfCriticalPath(evaluator.order);
     		for (Block block : blocks) {
-    			List<Swap> swaps = neighbors(block);
-    			for (Swap swap : swaps) {
-    				int currentIndex1 = taskToIndex(swap.t1, swap.machine, instance);
-    				int currentIndex2 = taskToIndex(swap.t2, swap.machine, instance);
-    				int tabooTimeOk = tabouMatrix[currentIndex1][currentIndex2];
-    				if(tabooTimeOk < iter) {
-	    				ResourceOrder neighborOrder = currentOrder.copy();
-	    				swap.applyOn(neighborOrder);
-	    				Schedule neighborSchedule = neighborOrder.toSchedule();
-	    				int neighbourMakespan = neighborSchedule.makespan();
-	    				//we found a better neighbour
-	    				if (neighbourMakespan < bestNeighbourMakespan) {
-	    					currentMakespan = neighbourMakespan;
-	    					currentOrder = neighborOrder;
-	    					bestNeighbourMakespan = neighbourMakespan;
-	    					bestIndex1 = currentIndex1;
-	    					bestIndex2 = currentIndex2;
-	    				}
-    				}
+    			candidates.addAll(neighbors(block));
+    		}
+    		int[] makespans = evaluate(evaluator, candidates);
+
+    		//searching for the best allowed neighbour and the best taboo one (the first one in case of a tie)
+    		int bestNeighbourMakespan = Integer.MAX_VALUE;
+    		Swap bestSwap = null;
+    		int bestTabooMakespan = Integer.MAX_VALUE;
+    		Swap bestTabooSwap = null;
+    		for (int k = 0; k < makespans.length; k++) {
+    			Swap swap = candidates.get(k);
+    			int first = evaluator.order.taskIdAt(swap.machine, Math.min(swap.t1, swap.t2));
+    			int second = evaluator.order.taskIdAt(swap.machine, Math.max(swap.t1, swap.t2));
+    			//aspiration : a taboo neighbour is allowed if it is better than the best solution
+    			boolean allowed = makespans[k] < minMakespan || !tabuList.isTabu(first, second, iter);
+    			if (allowed && makespans[k] < bestNeighbourMakespan) {
+    				bestNeighbourMakespan = makespans[k];
+    				bestSwap = swap;
+    			}
+    			if (!allowed && makespans[k] < bestTabooMakespan) {
+    				bestTabooMakespan = makespans[k];
+    				bestTabooSwap = swap;
     			}
     		}
-    		//update taboo matrix
-    		if ((bestIndex1 != -1) && (bestIndex2 != -1)) { //only if we found a neighbour
-    			tabouMatrix[bestIndex2][bestIndex1] = iter + tabooTime;
+    		//all neighbours are taboo : move to the best one rather than stay on the current solution
+    		if (bestSwap == null) {
+    			bestSwap = bestTabooSwap;
+    		}
+    		
+    		//move to the best neighbour and forbid to swap its tasks back
+    		if (bestSwap != null) { //only if we found a neighbour
+    			int first = evaluator.order.taskIdAt(bestSwap.machine, Math.min(bestSwap.t1, bestSwap.t2));
+    			int second = evaluator.order.taskIdAt(bestSwap.machine, Math.max(bestSwap.t1, bestSwap.t2));
+    			evaluator.apply(bestSwap);
+    			//the longer the search stagnates, the longer the moves stay taboo
+    			int tenure = Math.min(maxTenure, baseTenure + stagnation / STAGNATION_STEP);
+    			tabuList.add(second, first, iter, tenure);
     		}
     		//we found a new best solution
-			if (currentMakespan < minMakespan) {
-				minMakespan = currentMakespan;
-				bestOrder = currentOrder;
+			if (evaluator.makespan() < minMakespan) {
+				minMakespan = evaluator.makespan();
+				bestSchedule = evaluator.toSchedule();
+				stagnation = 0;
+				improved(evaluator, bestSchedule);
+				if (checkpoint != null) {
+					checkpoint.offer(evaluator.order, minMakespan);
+				}
+			}
+			else {
+				stagnation++;
+			}
+			//the search may be moved elsewhere, with a new taboo memory
+			if (restart(evaluator, stagnation)) {
+				tabuList.clear();
+				stagnation = 0;
 			}
     	}
     	
-    	return new Result(instance, bestOrder.toSchedule(), Result.ExitCause.Timeout);
+    	return new Result(instance, bestSchedule, cause);
 	}
-	
+
+	/** Called each time the search finds a new best solution. */
+	void improved(MoveEvaluator evaluator, Schedule schedule) {
+	}
+
 	/**
-	 * find the index in tabooMatrix for a given task number and job
-	 * @param task
-	 * @param instance
-	 * @return the index
+	 * Called at the end of each iteration : may replace the order of the evaluator (and reset it) to move
+	 * the search to another solution, for instance after a long stagnation.
+	 * @param stagnation number of iterations since the last improvement
+	 * @return true if the search was moved
 	 */
-	private int taskToIndex (int task, int machine, Instance instance) {
-		int index = -1;
-		
-		index = machine * instance.numTasks;
-		index += task;
-		
-		return index;
+	boolean restart(MoveEvaluator evaluator, int stagnation) {
+		return false;
+	}
+
+	/** Tenure of the moves when the search improves : grows slowly with the number of jobs per machine. */
+	static int baseTenure(Instance instance) {
+		return 10 + instance.numJobs / instance.numMachines;
+	}
+
+	/**
+	 * Evaluates the makespan of each candidate, concurrently if there are enough of them.
+	 * @return the makespans, in the order of the candidates
+	 */
+	int[] evaluate(MoveEvaluator evaluator, List<Swap> candidates) {
+		int[] makespans = new int[candidates.size()];
+		if (pool == null || candidates.size() < 2 * MIN_EVALUATIONS_PER_TASK) {
+			for (int k = 0; k < makespans.length; k++) {
+				makespans[k] = evaluator.evaluate(candidates.get(k));
+			}
+		}
+		else {
+			pool.invoke(new Evaluation(evaluator, candidates, makespans, 0, makespans.length));
+		}
+		return makespans;
+	}
+
+	/** Evaluation of the candidates in [from, to), split in halves until there are few enough of them. */
+	private static class Evaluation extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final MoveEvaluator evaluator;
+		final List<Swap> candidates;
+		final int[] makespans;
+		final int from;
+		final int to;
+
+		Evaluation(MoveEvaluator evaluator, List<Swap> candidates, int[] makespans, int from, int to) {
+			this.evaluator = evaluator;
+			this.candidates = candidates;
+			this.makespans = makespans;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from < 2 * MIN_EVALUATIONS_PER_TASK) {
+				MoveEvaluator.Workspace workspace = evaluator.localWorkspace();
+				for (int k = from; k < to; k++) {
+					makespans[k] = evaluator.evaluate(candidates.get(k), workspace);
+				}
+			}
+			else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Evaluation(evaluator, candidates, makespans, from, middle),
+						new Evaluation(evaluator, candidates, makespans, middle, to));
+			}
+		}
 	}
 
 }
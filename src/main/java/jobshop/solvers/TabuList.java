@@ -0,0 +1,58 @@
+package jobshop.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Tabu memory of a tabu search on swaps of adjacent tasks.
+ *
+ * When the tasks a and b (a before b on their machine) are swapped, the arc (b, a) is recorded : swapping
+ * b and a back is then forbidden for `tenure` iterations.
+ * At most one arc is recorded per iteration, so an arc recorded more than `maxTenure` iterations ago is
+ * expired and the arcs are kept in a ring of maxTenure + 1 entries. The memory is thus independent
+ * of the size of the instance.
+ */
+class TabuList {
+
+    // arcs (first << 32 | second) and iteration until which each one is tabu, the oldest entry being at `next`
+    private final long[] arcs;
+    private final int[] expirations;
+    private int next = 0;
+
+    TabuList(int maxTenure) {
+        if(maxTenure < 0)
+            throw new IllegalArgumentException("The tenure must be positive: " + maxTenure);
+        arcs = new long[maxTenure + 1];
+        expirations = new int[maxTenure + 1];
+    }
+
+    /**
+     * Records the arc (`first`, `second`) created by a swap, `first` being now just before `second` : swapping them
+     * again, which would reverse this arc, is forbidden until the iteration `iteration + tenure` (included).
+     */
+    void add(int first, int second, int iteration, int tenure) {
+        if(tenure >= arcs.length)
+            throw new IllegalArgumentException("The tenure " + tenure + " exceeds the capacity of the tabu list");
+        arcs[next] = arc(first, second);
+        expirations[next] = iteration + tenure;
+        next = (next + 1) % arcs.length;
+    }
+
+    /** Returns true if swapping the tasks `first` and `second` (first before second) is tabu at the given iteration. */
+    boolean isTabu(int first, int second, int iteration) {
+        long arc = arc(first, second);
+        for(int k = 0 ; k < arcs.length ; k++) {
+            if(arcs[k] == arc && expirations[k] >= iteration)
+                return true;
+        }
+        return false;
+    }
+
+    /** Forgets all the arcs. */
+    void clear() {
+        Arrays.fill(expirations, Integer.MIN_VALUE);
+    }
+
+    private static long arc(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,44 @@
+package jobshop;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GloutonSolver;
+
+public class BatchRunnerTest {
+
+    @Test
+    public void testBatchRunner() throws IOException, InterruptedException {
+        Map<String, Solver> solvers = new HashMap<>();
+        solvers.put("glouton", new GloutonSolver("SPT"));
+        solvers.put("gifflerThompsonRandom", new GifflerThompsonSolver(0.5, 0));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BatchRunner runner = new BatchRunner(solvers, 2, BatchRunner.Format.CSV, new PrintStream(bytes, true, "UTF-8"));
+
+        List<BatchRunner.Record> records = runner.run(Arrays.asList("glouton", "gifflerThompsonRandom"), Arrays.asList("ft06", "la01"), 2, 50);
+        assertEquals(8, records.size());
+        // a header and one line per cell
+        String[] lines = bytes.toString("UTF-8").split("\n");
+        assertEquals(9, lines.length);
+
+        int spt = new GloutonSolver("SPT").solve(Instance.fromFile(Paths.get("instances/ft06")), 0).schedule.makespan();
+        for(BatchRunner.Record record : records) {
+            assertTrue(record.gap() >= 0);
+            if(record.solver.equals("glouton") && record.instance.equals("ft06")) {
+                assertEquals(spt, record.makespan);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.GifflerThompsonSolver;
+import jobshop.solvers.GloutonSolver;
+import jobshop.solvers.TabooSolver;
+
+public class CheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSolutionIO() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Path file = folder.getRoot().toPath().resolve("ft10.sol");
+
+        // round trip of both encodings
+        ResourceOrder order = new ResourceOrder(new GifflerThompsonSolver(0.5, 0).solve(instance, 0).schedule);
+        SolutionIO.write(order, file);
+        assertEquals(order, SolutionIO.readResourceOrder(instance, file));
+        JobNumbers jobNumbers = new JobNumbers(order.toSchedule());
+        SolutionIO.write(jobNumbers, file);
+        assertArrayEquals(jobNumbers.jobs, SolutionIO.readJobNumbers(instance, file).jobs);
+        assertEquals(order.toSchedule().makespan(), SolutionIO.readResourceOrder(instance, file).toSchedule().makespan());
+    }
+
+    @Test
+    public void testCheckpoint() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Path file = folder.getRoot().toPath().resolve("ft10.sol");
+
+        // a second run continues from the solution of the first one
+        Result first = new TabooSolver(1).solve(instance, System.currentTimeMillis() + 300, new Checkpoint(file));
+        assertEquals(first.schedule.makespan(), SolutionIO.readResourceOrder(instance, file).toSchedule().makespan());
+        Result second = new DescentSolver().solve(instance, System.currentTimeMillis() + 10, new Checkpoint(file));
+        assertTrue(second.schedule.makespan() <= first.schedule.makespan());
+        Result greedy = new GloutonSolver("SPT").solve(instance, 0, new Checkpoint(file));
+        assertEquals(second.schedule.makespan(), greedy.schedule.makespan());
+    }
+
+    @Test
+    public void testCheckpointPerSolver() {
+        Path directory = folder.getRoot().toPath();
+        Path taboo = Main.checkpointFile(directory, "taboo", "ft10");
+        assertEquals(directory.resolve("taboo").resolve("ft10.sol"), taboo);
+        assertTrue(taboo.getParent().toFile().isDirectory());
+        assertNotEquals(taboo, Main.checkpointFile(directory, "descent", "ft10"));
+    }
+}
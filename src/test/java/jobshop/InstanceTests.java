@@ -0,0 +1,55 @@
+package jobshop;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class InstanceTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameInstance(Instance expected, Instance actual) {
+        assert expected.numJobs == actual.numJobs;
+        assert expected.numTasks == actual.numTasks;
+        for(int j = 0 ; j < expected.numJobs ; j++) {
+            for(int t = 0 ; t < expected.numTasks ; t++) {
+                assert expected.machine(j, t) == actual.machine(j, t);
+                assert expected.duration(j, t) == actual.duration(j, t);
+            }
+        }
+    }
+
+    @Test
+    public void testTextParser() throws IOException {
+        // comments at the beginning of the file and at the end of the header line
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        assert instance.numJobs == 2;
+        assert instance.numTasks == 3;
+        assert instance.machine(0, 1) == 1 && instance.duration(0, 1) == 3;
+        assert instance.machine(1, 2) == 2 && instance.duration(1, 2) == 4;
+
+        Instance ft06 = Instance.fromFile(Paths.get("instances/ft06"));
+        assert ft06.numJobs == 6;
+        assert ft06.machine(5, 5) == 2 && ft06.duration(5, 5) == 1;
+    }
+
+    @Test
+    public void testConversions() throws IOException {
+        for(String name : new String[] {"aaa1", "ft06", "ta01"}) {
+            Instance original = Instance.fromFile(Paths.get("instances", name));
+
+            Path binary = folder.getRoot().toPath().resolve(name + ".bin");
+            InstanceIO.writeBinary(original, binary);
+            assertSameInstance(original, Instance.fromFile(binary));
+
+            Path text = folder.getRoot().toPath().resolve(name + ".txt");
+            InstanceIO.writeText(Instance.fromFile(binary), text);
+            assertSameInstance(original, Instance.fromFile(text));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.solvers.TabooSolver;
+
+public class LowerBoundTest {
+
+    @Test
+    public void testLowerBound() throws IOException {
+        // A runs from 0 to 1, is preempted by B (larger tail) until 3, then completes at 6 before C (ends at 9)
+        assertEquals(9, LowerBound.preemptive(3, new int[] {0, 1, 4}, new int[] {4, 2, 3}, new int[] {1, 5, 0}));
+
+        for(String name : new String[] {"ft06", "ft10", "la01", "la11", "orb07", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+            assertTrue(instance.lowerBound() <= BestKnownResult.of(name));
+            assertTrue(instance.lowerBound() >= LowerBound.jobLoads(instance));
+            assertTrue(instance.lowerBound() >= LowerBound.machineLoads(instance));
+        }
+
+        // the bound of la01 is the optimal makespan : the search stops as soon as it reaches it
+        Instance instance = Instance.fromFile(Paths.get("instances/la01"));
+        assertEquals(666, instance.lowerBound());
+        Result result = new TabooSolver(1).solve(instance, System.currentTimeMillis() + 10000);
+        assertEquals(Result.ExitCause.ProvedOptimal, result.cause);
+        assertEquals(666, result.schedule.makespan());
+    }
+}
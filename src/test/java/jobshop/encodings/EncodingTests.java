@@ -102,6 +102,99 @@ public class EncodingTests {
     	System.out.println(matrix4);
     }
 
+    @Test
+    public void testResourceOrderDecoding() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        ResourceOrder enc = new ResourceOrder(instance);
+        enc.addTask(0, 0, 0);
+        enc.addTask(0, 1, 1);
+        enc.addTask(1, 1, 0);
+        enc.addTask(1, 0, 1);
+        enc.addTask(2, 0, 2);
+        enc.addTask(2, 1, 2);
+
+        Schedule sched = enc.toSchedule();
+        assert sched.isValid();
+        assert sched.makespan() == 12;
+        assert sched.startTime(1, 1) == 3;
+
+        // the resource order built from the schedule must give back the same schedule
+        Schedule sched2 = new ResourceOrder(sched).toSchedule();
+        for(int j = 0 ; j < instance.numJobs ; j++)
+            for(int t = 0 ; t < instance.numTasks ; t++)
+                assert sched.startTime(j, t) == sched2.startTime(j, t);
+
+        // (1,1) before (0,0) on machine 0 and (0,1) before (1,0) on machine 1 : cyclic
+        enc.swap(0, 0, 1);
+        enc.swap(1, 0, 1);
+        assert enc.toSchedule() == null;
+    }
+
+    @Test
+    public void testResourceOrderCopy() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        ResourceOrder order = new ResourceOrder(new BasicSolver().solve(instance, System.currentTimeMillis() + 10).schedule);
+
+        ResourceOrder copy = order.copy();
+        assert copy.toString().equals(order.toString());
+        assert copy.toSchedule().makespan() == order.toSchedule().makespan();
+
+        // modifying the copy must not modify the original
+        copy.swap(0, 0, 1);
+        assert copy.taskIdAt(0, 0) == order.taskIdAt(0, 1);
+        assert order.position(order.taskIdAt(0, 0)) == 0;
+
+        // a scratch order can be reset from another one
+        copy.copyFrom(order);
+        assert copy.toString().equals(order.toString());
+        assert copy.taskIndex(order.taskAt(0, 1)) == 1;
+    }
+
+    @Test
+    public void testCriticalPath() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule sched = new BasicSolver().solve(instance, System.currentTimeMillis() + 10).schedule;
+
+        // critical predecessors recorded by the decoder or recomputed from the start times give the same path
+        Schedule decoded = new ResourceOrder(sched).toSchedule();
+        assert decoded.makespan() == sched.makespan();
+        assert decoded.criticalPath().equals(sched.criticalPath());
+        assert sched.isCriticalPath(sched.criticalPath());
+    }
+
+    @Test
+    public void testScheduleValidation() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        Schedule valid = new Schedule(instance, new int[][] {{0, 3, 6}, {0, 3, 8}});
+        assert valid.isValid();
+        assert valid.firstViolation() == null;
+
+        // (0,2) and (1,2) both use machine 2 during [8, 8]
+        Schedule overlap = new Schedule(instance, new int[][] {{0, 3, 7}, {0, 3, 8}});
+        assert !overlap.isValid();
+        assert overlap.firstViolation().contains("machine 2");
+
+        // (1,1) starts before the end of (1,0)
+        Schedule precedence = new Schedule(instance, new int[][] {{0, 3, 6}, {0, 1, 8}});
+        assert !precedence.isValid();
+        assert precedence.firstViolation().contains("(1, 0)");
+    }
+
+    @Test
+    public void testInstanceTables() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        assert instance.task_with_machine(1, 0) == 1;
+        assert instance.remainingProcessingTime(0, 1) == 5;
+        assert instance.remainingProcessingTime(1, 3) == 0;
+        assert instance.jobLoad(1) == 8;
+        assert instance.machineLoad(2) == 6;
+        assert instance.duration(instance.taskId(1, 2)) == 4;
+        assert instance.machine(instance.taskId(1, 1)) == 0;
+    }
+
     @Test
     public void testBasicSolver() throws IOException {
         Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
@@ -0,0 +1,67 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Result;
+
+public class BranchAndBoundSolverTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void TestBranchAndBound() throws IOException {
+		
+		System.out.println("-----Test BranchAndBound-----");
+		
+		//the optimum of ft06 (55) is above its lower bound (52) : it can only be proved by exploring the tree
+		Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+		Result result = new BranchAndBoundSolver(2).solve(instance, System.currentTimeMillis() + 2000);
+		assertTrue(result.schedule.isValid());
+		assertEquals(Result.ExitCause.ProvedOptimal, result.cause);
+		assertEquals(55, result.schedule.makespan());
+	}
+	
+	@Test
+	public void TestBranchAndBoundZeroDuration() throws IOException {
+		
+		System.out.println("-----Test BranchAndBound with tasks of zero duration-----");
+		
+		//a task of zero duration starting with another one on its machine must stay before it, or it delays it
+		Path file = folder.getRoot().toPath().resolve("zero");
+		Files.write(file, Arrays.asList("3 3", "2 6 0 1 1 8", "1 3 0 5 2 0", "2 0 0 7 1 0"));
+		Instance instance = Instance.fromFile(file);
+		Result result = new BranchAndBoundSolver(1).solve(instance, System.currentTimeMillis() + 2000);
+		assertTrue(result.schedule.isValid());
+		assertEquals(Result.ExitCause.ProvedOptimal, result.cause);
+		assertEquals(16, result.schedule.makespan());
+	}
+	
+	@Test
+	public void TestBranchAndBoundDeadline() throws IOException {
+		
+		System.out.println("-----Test BranchAndBoundDeadline-----");
+		
+		//ta11 (20x15) is far from being closed : the search is stopped by the deadline, and returns right after it
+		Instance instance = Instance.fromFile(Paths.get("instances/ta11"));
+		long deadline = System.currentTimeMillis() + 1000;
+		Result result = new BranchAndBoundSolver(4).solve(instance, deadline);
+		long overrun = System.currentTimeMillis() - deadline;
+		assertTrue("The deadline is exceeded by " + overrun + " ms", overrun < 250);
+		assertEquals(Result.ExitCause.Timeout, result.cause);
+		assertTrue(result.schedule.isValid());
+	}
+	
+}
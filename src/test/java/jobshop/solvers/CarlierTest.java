@@ -0,0 +1,59 @@
+package jobshop.solvers;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CarlierTest {
+	
+	/** Makespan of the best of the permutations of the tasks [k, n) after the tasks of sequence[0 .. k). */
+	private static int bestPermutation(int[] sequence, int k, int n, int[] heads, int[] durations, int[] tails) {
+		if (k == n) {
+			int time = 0;
+			int makespan = 0;
+			for (int i : sequence) {
+				time = Math.max(time, heads[i]) + durations[i];
+				makespan = Math.max(makespan, time + tails[i]);
+			}
+			return makespan;
+		}
+		int best = Integer.MAX_VALUE;
+		for (int l = k; l < n; l++) {
+			int swapped = sequence[k];
+			sequence[k] = sequence[l];
+			sequence[l] = swapped;
+			best = Math.min(best, bestPermutation(sequence, k + 1, n, heads, durations, tails));
+			sequence[l] = sequence[k];
+			sequence[k] = swapped;
+		}
+		return best;
+	}
+	
+	@Test
+	public void TestCarlier() {
+		
+		System.out.println("-----Test Carlier-----");
+		
+		//Carlier's algorithm is exact on small one-machine problems
+		Random random = new Random(0);
+		int n = 6;
+		Carlier carlier = new Carlier(n, Integer.MAX_VALUE);
+		for (int k = 0; k < 100; k++) {
+			int[] heads = new int[n];
+			int[] durations = new int[n];
+			int[] tails = new int[n];
+			for (int i = 0; i < n; i++) {
+				heads[i] = random.nextInt(30);
+				durations[i] = 1 + random.nextInt(10);
+				tails[i] = random.nextInt(30);
+			}
+			int[] sequence = new int[n];
+			int makespan = carlier.solve(n, heads, durations, tails, sequence);
+			int[] identity = {0, 1, 2, 3, 4, 5};
+			assertEquals(bestPermutation(identity, 0, n, heads, durations, tails), makespan);
+		}
+	}
+	
+}
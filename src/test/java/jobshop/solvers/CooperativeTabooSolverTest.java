@@ -0,0 +1,54 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+
+public class CooperativeTabooSolverTest {
+	
+	@Test
+	public void TestCooperativeTaboo() throws IOException {
+		
+		System.out.println("-----Test CooperativeTabooSolver-----");
+		
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		Schedule spt = new GloutonSolver("SPT").solve(instance, System.currentTimeMillis() + 10).schedule;
+		
+		Result result = new CooperativeTabooSolver(2).solve(instance, System.currentTimeMillis() + 500);
+		assertTrue(result.schedule.isValid());
+		assertTrue(result.schedule.makespan() < spt.makespan());
+	}
+	
+	@Test
+	public void TestConcurrentCalls() throws Exception {
+		
+		System.out.println("-----Test concurrent calls of CooperativeTabooSolver-----");
+		
+		//each call runs its trajectories on its own threads, whatever the number of cores
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		int initial = GifflerThompsonSolver.initialOrder(instance, Long.MAX_VALUE).toSchedule().makespan();
+		CooperativeTabooSolver solver = new CooperativeTabooSolver(Runtime.getRuntime().availableProcessors() + 1);
+		long deadline = System.currentTimeMillis() + 1000;
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			Future<Result> first = callers.submit(() -> solver.solve(instance, deadline));
+			Future<Result> second = callers.submit(() -> solver.solve(instance, deadline));
+			assertTrue(first.get().schedule.makespan() < initial);
+			assertTrue(second.get().schedule.makespan() < initial);
+		}
+		finally {
+			callers.shutdownNow();
+		}
+	}
+	
+}
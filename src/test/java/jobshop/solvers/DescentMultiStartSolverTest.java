@@ -0,0 +1,30 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Result;
+
+public class DescentMultiStartSolverTest {
+	
+	@Test
+	public void TestMultiStartUsesBudget() throws IOException {
+		
+		System.out.println("-----Test DescentMultiStartSolver-----");
+		
+		//a single start ends at its first local optimum : new starts are run until the deadline
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		long start = System.currentTimeMillis();
+		Result result = new DescentMultiStartSolver(1).solve(instance, start + 500);
+		assertTrue(System.currentTimeMillis() - start >= 450);
+		assertEquals(Result.ExitCause.Timeout, result.cause);
+		assertTrue(result.schedule.isValid());
+	}
+	
+}
@@ -5,9 +5,13 @@ import java.nio.file.Paths;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Path;
 import java.util.List;
 
 import jobshop.Instance;
+import jobshop.Result;
 import jobshop.Schedule;
 import jobshop.solvers.DescentSolver.Block;
 import jobshop.solvers.DescentSolver.Swap;
@@ -108,4 +112,82 @@ public class DescentSolverTest {
 		
 	}
 	
+	@Test
+	public void TestMoveEvaluator() throws IOException {
+		
+		System.out.println("-----Test MoveEvaluator-----");
+		
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		
+		Schedule schedule = new GloutonSolver("SPT").solve(instance, System.currentTimeMillis() + 10).schedule;
+		ResourceOrder resourceOrder = new ResourceOrder(schedule);
+		MoveEvaluator evaluator = new MoveEvaluator(resourceOrder);
+		assertEquals(schedule.makespan(), evaluator.makespan());
+		
+		DescentSolver solver = new DescentSolver();
+		for (int iter = 0; iter < 20; iter++) {
+			List<Block> blockList = solver.blocksOfCriticalPath(resourceOrder);
+			Swap last = null;
+			for (Block block : blockList) {
+				for (Swap swap : solver.neighbors(block)) {
+					//the evaluation must be the same as the one of the complete schedule
+					ResourceOrder newOrder = resourceOrder.copy();
+					swap.applyOn(newOrder);
+					assertEquals(newOrder.toSchedule().makespan(), evaluator.evaluate(swap));
+					last = swap;
+				}
+			}
+			if (last == null) {
+				break;
+			}
+			//heads must stay identical to the start times after a move
+			evaluator.apply(last);
+			Schedule expected = resourceOrder.toSchedule();
+			assertEquals(expected.makespan(), evaluator.makespan());
+			for (int j = 0; j < instance.numJobs; j++) {
+				for (int t = 0; t < instance.numTasks; t++) {
+					assertEquals(expected.startTime(j, t), evaluator.head(j, t));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void TestParallelTaboo() throws IOException {
+		
+		System.out.println("-----Test parallel TabooSolver-----");
+		
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		
+		//the trajectory must not depend on the number of threads evaluating the neighbors
+		long deadline = System.currentTimeMillis() + 60000;
+		Schedule sequential = new TabooSolver(1, 2000).solve(instance, deadline).schedule;
+		Schedule parallel = new TabooSolver(4, 2000).solve(instance, deadline).schedule;
+		assert parallel.isValid();
+		assertEquals(sequential.makespan(), parallel.makespan());
+		for (int j = 0; j < instance.numJobs; j++) {
+			for (int t = 0; t < instance.numTasks; t++) {
+				assertEquals(sequential.startTime(j, t), parallel.startTime(j, t));
+			}
+		}
+	}
+	
+	@Test
+	public void TestAnytimeDescent() throws IOException {
+		
+		System.out.println("-----Test anytime DescentSolver-----");
+		
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		
+		//without restarts, the descent stops at the first local optimum
+		Result single = new DescentSolver(false, 0).solve(instance, System.currentTimeMillis() + 10000);
+		assertEquals(Result.ExitCause.Blocked, single.cause);
+		
+		//with restarts, it uses the whole budget and never returns a worse solution
+		Result anytime = new DescentSolver(true, 0).solve(instance, System.currentTimeMillis() + 500);
+		assertEquals(Result.ExitCause.Timeout, anytime.cause);
+		assert anytime.schedule.isValid();
+		assert anytime.schedule.makespan() <= single.schedule.makespan();
+	}
+	
 }
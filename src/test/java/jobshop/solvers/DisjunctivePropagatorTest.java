@@ -0,0 +1,43 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+
+public class DisjunctivePropagatorTest {
+	
+	@Test
+	public void TestDisjunctivePropagator() throws IOException {
+		
+		System.out.println("-----Test DisjunctivePropagator-----");
+		
+		//the windows for the optimal makespan of ft06 (55) are narrowed, but keep every task of an optimal schedule
+		Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+		Schedule schedule = new BranchAndBoundSolver(1).solve(instance, System.currentTimeMillis() + 2000).schedule;
+		DisjunctivePropagator propagator = new DisjunctivePropagator(instance);
+		propagator.reset(55);
+		assertTrue(propagator.propagate());
+		boolean narrowed = false;
+		for (int job = 0; job < instance.numJobs; job++) {
+			for (int task = 0; task < instance.numTasks; task++) {
+				int id = instance.taskId(job, task);
+				assertTrue(propagator.est[id] <= schedule.startTime(job, task));
+				assertTrue(schedule.startTime(job, task) + instance.duration(id) <= propagator.lct[id]);
+				narrowed |= propagator.lct[id] - propagator.est[id] < 55 - instance.jobLoad(job) + instance.duration(id);
+			}
+		}
+		assertTrue(narrowed);
+		
+		//no schedule is shorter than the lower bound
+		propagator.reset(instance.lowerBound() - 1);
+		assertFalse(propagator.propagate());
+	}
+	
+}
@@ -0,0 +1,51 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.DescentSolver.Block;
+import jobshop.solvers.DescentSolver.Swap;
+
+public class ElitePoolTest {
+	
+	@Test
+	public void TestElitePool() throws IOException {
+		
+		System.out.println("-----Test ElitePool-----");
+		
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		ResourceOrder order = new ResourceOrder(new GloutonSolver("SPT").solve(instance, System.currentTimeMillis() + 10).schedule);
+		
+		ElitePool pool = new ElitePool(2);
+		assertNull(pool.pick(new Random(0)));
+		assertTrue(pool.offer(order, 1000));
+		//the same order is kept only once
+		assertFalse(pool.offer(order.copy(), 1000));
+		
+		ResourceOrder other = order.copy();
+		List<Block> blocks = new DescentSolver().blocksOfCriticalPath(other);
+		new Swap(blocks.get(0).machine, blocks.get(0).firstTask, blocks.get(0).firstTask + 1).applyOn(other);
+		assertTrue(pool.offer(other, 1100));
+		//the pool is full : only a better order replaces the worst one
+		assertFalse(pool.offer(order.copy(), 1200));
+		
+		//the copies stored in the pool are not affected by later modifications
+		ResourceOrder stored = pool.pick(new Random(0)).order;
+		ResourceOrder before = stored.copy();
+		other.swap(0, 0, 1);
+		order.swap(0, 0, 1);
+		assertEquals(before, stored);
+	}
+	
+}
@@ -0,0 +1,30 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Result;
+
+public class GeneticSolverTest {
+	
+	@Test
+	public void TestGenetic() throws IOException {
+		
+		System.out.println("-----Test Genetic-----");
+		
+		for (String name : new String[] {"ft06", "la01", "ft10"}) {
+			Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+			Result result = new GeneticSolver(200, 2, 0).withSeed(1).solve(instance, System.currentTimeMillis() + 1000);
+			assertTrue(result.schedule.isValid());
+			//the first generation holds the best greedy schedule, which is never lost
+			assertTrue(result.schedule.makespan() <= GifflerThompsonSolver.initialOrder(instance, Long.MAX_VALUE).toSchedule().makespan());
+			assertTrue(result.schedule.makespan() >= instance.lowerBound());
+		}
+	}
+	
+}
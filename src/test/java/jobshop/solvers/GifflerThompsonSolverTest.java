@@ -0,0 +1,58 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+
+public class GifflerThompsonSolverTest {
+	
+	@Test
+	public void TestGifflerThompson() throws IOException {
+		
+		System.out.println("-----Test GifflerThompson-----");
+		
+		for (String name : new String[] {"ft06", "ft10", "orb07", "la36"}) {
+			Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+			
+			//without delay, the schedules are the greedy ones
+			Schedule greedy = new GloutonSolver(DispatchRule.LRPT).solve(instance, 0).schedule;
+			Schedule nonDelay = new ActiveScheduleGenerator(instance, DispatchRule.LRPT, 0).generate().toSchedule();
+			assertEquals(greedy.makespan(), nonDelay.makespan());
+			
+			Schedule active = new ActiveScheduleGenerator(instance, DispatchRule.random(new Random(0))).generate().toSchedule();
+			assertTrue(active.isValid());
+			//no task can be moved earlier, into an idle period of its machine
+			for (int j = 0; j < instance.numJobs; j++) {
+				for (int t = 0; t < instance.numTasks; t++) {
+					int ready = t == 0 ? 0 : active.startTime(j, t - 1) + instance.duration(j, t - 1);
+					int machine = instance.machine(j, t);
+					//earliest time after ready at which the machine is idle long enough
+					int start = ready;
+					boolean moved = true;
+					while (moved) {
+						moved = false;
+						for (int other = 0; other < instance.numJobs; other++) {
+							int task = instance.task_with_machine(other, machine);
+							int otherStart = active.startTime(other, task);
+							int otherEnd = otherStart + instance.duration(other, task);
+							if (other != j && otherStart < start + instance.duration(j, t) && start < otherEnd) {
+								start = otherEnd;
+								moved = true;
+							}
+						}
+					}
+					assertTrue(name + " task (" + j + ", " + t + ") could start at " + start, start >= active.startTime(j, t));
+				}
+			}
+		}
+	}
+	
+}
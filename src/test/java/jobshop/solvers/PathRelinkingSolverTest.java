@@ -0,0 +1,50 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.ResourceOrder;
+
+public class PathRelinkingSolverTest {
+	
+	@Test
+	public void TestPathRelinking() throws IOException {
+		
+		System.out.println("-----Test PathRelinking-----");
+		
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		ResourceOrder greedy = GifflerThompsonSolver.initialOrder(instance, Long.MAX_VALUE);
+		ResourceOrder other = new ActiveScheduleGenerator(instance, DispatchRule.SPT, 1).generate();
+		int distance = PathRelinkingSolver.distance(greedy, other);
+		assertEquals(0, PathRelinkingSolver.distance(greedy, greedy));
+		assertEquals(distance, PathRelinkingSolver.distance(other, greedy));
+		assertTrue(distance > 0);
+		
+		//the middle of the path is a feasible order closer to both ends
+		ResourceOrder middle = PathRelinkingSolver.relink(greedy, other, Long.MAX_VALUE);
+		assertNotNull(middle);
+		assertNotNull(middle.toSchedule());
+		assertTrue(PathRelinkingSolver.distance(middle, other) < distance);
+		assertTrue(PathRelinkingSolver.distance(middle, greedy) < distance);
+		
+		//the elite set rejects an order too close to a better one
+		PathRelinkingSolver.EliteSet elites = new PathRelinkingSolver.EliteSet(2, 1);
+		assertTrue(elites.offer(greedy, greedy.toSchedule().makespan()));
+		assertFalse(elites.offer(greedy, greedy.toSchedule().makespan()));
+		assertEquals(1, elites.size());
+		
+		Result result = new PathRelinkingSolver().withSeed(1).solve(instance, System.currentTimeMillis() + 2000);
+		assertTrue(result.schedule.isValid());
+		assertTrue(result.schedule.makespan() <= greedy.toSchedule().makespan());
+	}
+	
+}
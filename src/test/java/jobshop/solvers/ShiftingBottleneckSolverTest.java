@@ -0,0 +1,48 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+
+public class ShiftingBottleneckSolverTest {
+	
+	@Test
+	public void TestShiftingBottleneck() throws IOException {
+		
+		System.out.println("-----Test ShiftingBottleneck-----");
+		
+		for (String name : new String[] {"ft06", "ft10", "la21", "orb07", "swv01"}) {
+			Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+			Result result = new ShiftingBottleneckSolver().solve(instance, System.currentTimeMillis() + 1000);
+			assertTrue(result.schedule.isValid());
+			assertTrue(result.schedule.makespan() >= instance.lowerBound());
+		}
+		
+		//much better than the dispatch rules on ft10
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		Result result = new ShiftingBottleneckSolver().solve(instance, System.currentTimeMillis() + 1000);
+		assertTrue(result.schedule.makespan() < new GloutonSolver("SPT").solve(instance, System.currentTimeMillis() + 1000).schedule.makespan());
+		assertEquals(result.schedule.makespan(), GifflerThompsonSolver.initialOrder(instance, Long.MAX_VALUE).toSchedule().makespan());
+	}
+	
+	@Test
+	public void TestShiftingBottleneckDeadline() throws IOException {
+		
+		System.out.println("-----Test ShiftingBottleneckDeadline-----");
+		
+		//once the deadline is reached, the one-machine problems are only solved by the Schrage heuristic
+		Instance instance = Instance.fromFile(Paths.get("instances/ta71"));
+		Schedule heuristic = ShiftingBottleneckSolver.sequence(instance, 0).toSchedule();
+		assertTrue(heuristic.isValid());
+		assertTrue(heuristic.makespan() >= instance.lowerBound());
+	}
+	
+}
@@ -0,0 +1,43 @@
+package jobshop.solvers;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+import jobshop.Instance;
+import jobshop.Result;
+
+public class SimulatedAnnealingSolverTest {
+	
+	@Test
+	public void TestSimulatedAnnealing() throws IOException {
+		
+		System.out.println("-----Test SimulatedAnnealing-----");
+		
+		//the estimate of a critical swap is a lower bound of its makespan
+		Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+		MoveEvaluator evaluator = new MoveEvaluator(GifflerThompsonSolver.initialOrder(instance, Long.MAX_VALUE));
+		int[] moves = new int[instance.numJobs * instance.numTasks];
+		int numMoves = SimulatedAnnealingSolver.criticalMoves(evaluator, moves);
+		assertTrue(numMoves > 0);
+		for (int k = 0; k < numMoves; k++) {
+			int machine = moves[k] / instance.numJobs;
+			int index = moves[k] % instance.numJobs;
+			int makespan = evaluator.evaluate(machine, index, index + 1, evaluator.localWorkspace());
+			assertTrue(makespan != Integer.MAX_VALUE);
+			assertTrue(evaluator.estimateAdjacentSwap(machine, index) <= makespan);
+		}
+		
+		for (String name : new String[] {"ft06", "ft10", "la21"}) {
+			instance = Instance.fromFile(Paths.get("instances/" + name));
+			Result result = new SimulatedAnnealingSolver().withSeed(1).solve(instance, System.currentTimeMillis() + 1000);
+			assertTrue(result.schedule.isValid());
+			assertTrue(result.schedule.makespan() <= GifflerThompsonSolver.initialOrder(instance, Long.MAX_VALUE).toSchedule().makespan());
+			assertTrue(result.schedule.makespan() >= instance.lowerBound());
+		}
+	}
+	
+}